@@ -0,0 +1,126 @@
+import io.netty.handler.timeout.ReadTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sets a per-request response timeout of p99.9 + margin of the latencies observed for one API,
+ * clamped between a min and a max.
+ * <p>
+ * Latency is measured from the request being written on its connection, once the pool has handed one out,
+ * to the response headers being received: what the reactor-netty response timeout covers, without the wait
+ * for a pooled connection. It is kept over a sliding window of the last {@value #WINDOW_SIZE} calls.
+ * <ul>
+ *   <li>Responses are recorded, except 5xx ones: an upstream failing fast would otherwise drag the timeout
+ *   down just when it is in trouble.</li>
+ *   <li>Connect and other transport failures are not recorded, they say nothing about response time.</li>
+ *   <li>A call that hit its timeout is a censored sample: it only says the latency is above that timeout. It is
+ *   recorded as twice the timeout (within the max), so while calls keep timing out the timeout doubles at each
+ *   recomputation instead of creeping up by the margin.</li>
+ * </ul>
+ * Until {@value #MIN_SAMPLES} calls have been recorded, the max is used.
+ */
+@Slf4j
+public class AdaptiveTimeoutFilter implements ExchangeFilterFunction {
+
+    private static final int WINDOW_SIZE = 4096; // power of two
+    private static final int MIN_SAMPLES = 200;
+    private static final int RECOMPUTE_EVERY = 256;
+    private static final double PERCENTILE = 0.999;
+
+    private final String apiName;
+    private final long minNanos;
+    private final long maxNanos;
+    private final long marginNanos;
+
+    // Written from the event loops, read by whichever thread recomputes the timeout
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW_SIZE);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong computedAt = new AtomicLong(-RECOMPUTE_EVERY);
+    private volatile long timeoutNanos;
+
+    public AdaptiveTimeoutFilter(String apiName, Duration min, Duration max, Duration margin) {
+        if (min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("Adaptive timeout min " + min + " is above max " + max);
+        }
+        this.apiName = apiName;
+        this.minNanos = min.toNanos();
+        this.maxNanos = max.toNanos();
+        this.marginNanos = margin.toNanos();
+        this.timeoutNanos = maxNanos;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Duration timeout = currentTimeout();
+            AtomicLong sentAt = new AtomicLong(); // 0 until the request goes out on a connection
+            ClientRequest timedRequest = ClientRequest.from(request)
+                    .httpRequest(httpRequest -> {
+                        HttpClientRequest nativeRequest = httpRequest.getNativeRequest();
+                        nativeRequest.responseTimeout(timeout);
+                        sentAt.set(System.nanoTime()); // called once the connection is acquired
+                    })
+                    .build();
+
+            return next.exchange(timedRequest)
+                    .doOnSuccess(response -> {
+                        long start = sentAt.get();
+                        if (response != null && start != 0 && !response.statusCode().is5xxServerError()) {
+                            record(System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (sentAt.get() != 0 && isResponseTimeout(error)) {
+                            record(Math.min(maxNanos, 2 * timeout.toNanos())); // latency is above the timeout
+                        }
+                    });
+        });
+    }
+
+    /** Timeout given to the next request. */
+    public Duration currentTimeout() {
+        long count = recorded.get();
+        long lastComputed = computedAt.get();
+        if (count >= MIN_SAMPLES && count - lastComputed >= RECOMPUTE_EVERY && computedAt.compareAndSet(lastComputed, count)) {
+            long previous = timeoutNanos;
+            timeoutNanos = Math.min(maxNanos, Math.max(minNanos, percentileNanos(count) + marginNanos));
+            if (Math.abs(timeoutNanos - previous) > previous / 5) {
+                log.info("[{}] Adaptive response timeout {} ms -> {} ms", apiName,
+                        Duration.ofNanos(previous).toMillis(), Duration.ofNanos(timeoutNanos).toMillis());
+            }
+        }
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    private void record(long latencyNanos) {
+        long index = recorded.getAndIncrement();
+        samples.set((int) (index & (WINDOW_SIZE - 1)), latencyNanos);
+    }
+
+    private static boolean isResponseTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ReadTimeoutException) return true; // what the response timeout raises
+        }
+        return false;
+    }
+
+    private long percentileNanos(long count) {
+        int size = (int) Math.min(count, WINDOW_SIZE);
+        long[] window = new long[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = samples.get(i);
+        }
+        Arrays.sort(window);
+        return window[Math.min(size - 1, (int) Math.ceil(PERCENTILE * size) - 1)];
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.executor;
+
+import com.example.model.ApiConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker + semaphore bulkhead of one API, configured from its {@link ApiConfig}.
+ * <p>
+ * Calls refused by either one fail immediately with a stackless exception, so a degraded upstream
+ * costs its callers microseconds instead of event loop time and pool slots shared with other APIs.
+ * Only upstream trouble counts as failure: 5xx, timeouts and connection errors, not 4xx.
+ */
+@Slf4j
+public class ApiGuard {
+
+    private static final int DEFAULT_WINDOW_SIZE = 100;
+    private static final int DEFAULT_OPEN_SEC = 30;
+    private static final int DEFAULT_HALF_OPEN_CALLS = 10;
+
+    private final String apiName;
+    private final CircuitBreaker circuitBreaker; // null = disabled
+    private final Semaphore bulkhead;            // null = disabled
+    private final int bulkheadSize;
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder bulkheadRejected = new LongAdder();
+
+    public ApiGuard(ApiConfig apiConfig) {
+        this.apiName = apiConfig.getName();
+
+        Integer failureRate = apiConfig.getCircuitBreakerFailureRatePct();
+        Integer slowRate = apiConfig.getCircuitBreakerSlowCallRatePct();
+        this.circuitBreaker = failureRate == null && slowRate == null ? null : new CircuitBreaker(
+                apiName,
+                Optional.ofNullable(apiConfig.getCircuitBreakerWindowSize()).orElse(DEFAULT_WINDOW_SIZE),
+                Optional.ofNullable(failureRate).orElse(0),
+                Optional.ofNullable(slowRate).orElse(0),
+                Duration.ofMillis(Optional.ofNullable(apiConfig.getCircuitBreakerSlowCallMs()).orElse(0)).toNanos(),
+                Duration.ofSeconds(Optional.ofNullable(apiConfig.getCircuitBreakerOpenSec()).orElse(DEFAULT_OPEN_SEC)).toNanos(),
+                Optional.ofNullable(apiConfig.getCircuitBreakerHalfOpenCalls()).orElse(DEFAULT_HALF_OPEN_CALLS));
+
+        this.bulkheadSize = Optional.ofNullable(apiConfig.getBulkheadMaxConcurrentCalls()).orElse(0);
+        this.bulkhead = bulkheadSize > 0 ? new Semaphore(bulkheadSize) : null;
+    }
+
+    /** True if the config asks for a circuit breaker or a bulkhead. */
+    public static boolean isConfigured(ApiConfig apiConfig) {
+        return apiConfig.getCircuitBreakerFailureRatePct() != null
+                || apiConfig.getCircuitBreakerSlowCallRatePct() != null
+                || apiConfig.getBulkheadMaxConcurrentCalls() != null;
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            long permit = circuitBreaker != null ? circuitBreaker.tryAcquire() : 0L;
+            if (permit == CircuitBreaker.NOT_PERMITTED) {
+                notPermitted.increment();
+                return Mono.error(new CallNotPermittedException(apiName, circuitBreaker.getState()));
+            }
+            if (bulkhead != null && !bulkhead.tryAcquire()) {
+                if (circuitBreaker != null) circuitBreaker.onCancel(permit);
+                bulkheadRejected.increment();
+                return Mono.error(new BulkheadFullException(apiName, bulkheadSize));
+            }
+
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(value -> onResult(permit, start, false))
+                    .doOnError(error -> onResult(permit, start, isUpstreamFailure(error)))
+                    .doFinally(signal -> {
+                        if (bulkhead != null) bulkhead.release();
+                        if (signal == SignalType.CANCEL && circuitBreaker != null) circuitBreaker.onCancel(permit);
+                    });
+        });
+    }
+
+    public GuardMetrics metrics() {
+        return new GuardMetrics(
+                apiName,
+                circuitBreaker != null ? circuitBreaker.getState() : CircuitBreaker.State.CLOSED,
+                circuitBreaker != null ? circuitBreaker.getFailureRatePct() : 0.0,
+                circuitBreaker != null ? circuitBreaker.getSlowCallRatePct() : 0.0,
+                bulkhead != null ? bulkheadSize - bulkhead.availablePermits() : 0,
+                notPermitted.sum(),
+                bulkheadRejected.sum());
+    }
+
+    private void onResult(long permit, long start, boolean failure) {
+        if (circuitBreaker == null) return;
+        CircuitBreaker.State before = circuitBreaker.getState();
+        circuitBreaker.onResult(permit, System.nanoTime() - start, failure);
+        CircuitBreaker.State after = circuitBreaker.getState();
+        if (before != after) {
+            log.warn("[{}] Circuit breaker {} -> {} (failure rate {}%, slow calls {}%)", apiName, before, after,
+                    Math.round(circuitBreaker.getFailureRatePct()), Math.round(circuitBreaker.getSlowCallRatePct()));
+        }
+    }
+
+    private static boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return true; // timeouts, connection refused/reset, pool acquire timeout...
+    }
+
+    /** Snapshot for monitoring; {@code inFlight} is the number of bulkhead permits in use. */
+    public record GuardMetrics(String apiName, CircuitBreaker.State state, double failureRatePct,
+                               double slowCallRatePct, int inFlight, long notPermittedCalls,
+                               long bulkheadRejectedCalls) {
+    }
+
+    /** Refused by an open (or saturated half-open) circuit breaker. */
+    public static class CallNotPermittedException extends RuntimeException {
+        public CallNotPermittedException(String apiName, CircuitBreaker.State state) {
+            super("Circuit breaker of " + apiName + " is " + state + ", call not permitted", null, false, false);
+        }
+    }
+
+    /** Refused because {@code bulkheadMaxConcurrentCalls} calls are already in flight. */
+    public static class BulkheadFullException extends RuntimeException {
+        public BulkheadFullException(String apiName, int maxConcurrentCalls) {
+            super("Bulkhead of " + apiName + " is full (" + maxConcurrentCalls + " concurrent calls)", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+import com.example.security.CredentialStore;
+
+import java.util.Map;
+
+/**
+ * Auth headers of an API, encoded once by the {@link CredentialStore} and shared by all its requests.
+ */
+public class AuthHeaderFactory implements Factory<Map<String, String>, ApiConfig> {
+
+    private final CredentialStore credentialStore;
+
+    public AuthHeaderFactory(CredentialStore credentialStore) {
+        this.credentialStore = credentialStore;
+    }
+
+    @Override
+    public Map<String, String> create(ApiConfig apiConfig) {
+        return credentialStore.authHeaders(apiConfig);
+    }
+
+    @Override
+    public String generateKey(ApiConfig apiConfig) {
+        return apiConfig.getName();
+    }
+}
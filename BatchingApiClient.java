@@ -0,0 +1,224 @@
+package com.example.executor;
+
+import com.example.model.ApiConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Folds concurrent single-key GET calls into one multi-value call.
+ * <p>
+ * Calls to {@link #execute} that share the same other params (e.g. {@code biz_date}, {@code region})
+ * are collected for at most {@code maxWait} or until {@code maxBatchSize} distinct keys are pending,
+ * then sent as one request with the key param repeated ({@code internal_security_id=1&internal_security_id=2...}).
+ * The {@code demultiplexer} splits the bulk response per key, and each caller's Mono receives its own part
+ * (empty if the backend returned nothing for that key). A failed bulk call fails every caller of the batch.
+ * <p>
+ * A caller that cancels leaves its batch: a key no caller waits for any more is not sent, a batch left with
+ * no caller is dropped before dispatch, and its bulk call is cancelled if already in flight.
+ * <p>
+ * The bulk call goes through {@link RestApiClient}, or through any {@code bulkCall} function given the
+ * merged params, e.g. another execution service.
+ *
+ * @param <T> body type of the bulk response
+ * @param <R> per-key result type
+ */
+@Slf4j
+public class BatchingApiClient<T, R> {
+
+    private final String name;
+    private final Function<MultiValueMap<String, String>, Mono<ResponseEntity<T>>> bulkCall;
+    private final String keyParam;
+    private final Function<ResponseEntity<T>, Map<String, R>> demultiplexer;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final Scheduler scheduler;
+
+    // Shared params (sorted) -> batch being collected for them; also guards every Batch
+    private final Map<Map<String, List<String>>, Batch> openBatches = new HashMap<>();
+
+    public BatchingApiClient(RestApiClient restApiClient,
+                             ApiConfig apiConfig,
+                             String endpoint,
+                             String keyParam,
+                             Class<T> responseType,
+                             Function<ResponseEntity<T>, Map<String, R>> demultiplexer,
+                             int maxBatchSize,
+                             Duration maxWait) {
+        this(Objects.requireNonNull(apiConfig, "apiConfig").getName() + " " + Objects.requireNonNull(endpoint, "endpoint"),
+                params -> restApiClient.execute(apiConfig, HttpMethod.GET, endpoint, null, responseType, null, params),
+                keyParam, demultiplexer, maxBatchSize, maxWait);
+        Objects.requireNonNull(restApiClient, "restApiClient");
+        Objects.requireNonNull(responseType, "responseType");
+    }
+
+    /**
+     * @param name     used in logs, e.g. API name and endpoint
+     * @param bulkCall the GET call for the merged params (shared params plus the repeated key param)
+     */
+    public BatchingApiClient(String name,
+                             Function<MultiValueMap<String, String>, Mono<ResponseEntity<T>>> bulkCall,
+                             String keyParam,
+                             Function<ResponseEntity<T>, Map<String, R>> demultiplexer,
+                             int maxBatchSize,
+                             Duration maxWait) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be >= 1");
+        }
+        this.name = Objects.requireNonNull(name, "name");
+        this.bulkCall = Objects.requireNonNull(bulkCall, "bulkCall");
+        this.keyParam = Objects.requireNonNull(keyParam, "keyParam");
+        this.demultiplexer = Objects.requireNonNull(demultiplexer, "demultiplexer");
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = Objects.requireNonNull(maxWait, "maxWait");
+        this.scheduler = Schedulers.parallel();
+    }
+
+    /**
+     * Result for one key. {@code sharedParams} must not contain the key param; calls are only
+     * batched together when their shared params are equal.
+     */
+    public Mono<R> execute(String key, MultiValueMap<String, String> sharedParams) {
+        Objects.requireNonNull(key, "key");
+        return Mono.create(sink -> enqueue(key, normalize(sharedParams), sink));
+    }
+
+    private void enqueue(String key, Map<String, List<String>> sharedParams, MonoSink<R> sink) {
+        Batch toFlush = null;
+        synchronized (openBatches) {
+            Batch batch = openBatches.computeIfAbsent(sharedParams, Batch::new);
+            batch.add(key, sink);
+            sink.onCancel(() -> leave(batch, key, sink));
+
+            if (batch.keyCount() >= maxBatchSize) {
+                openBatches.remove(sharedParams);
+                toFlush = batch;
+            } else if (batch.timer == null) {
+                batch.timer = scheduler.schedule(() -> flushOnTimeout(batch),
+                        maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (toFlush != null) {
+            toFlush.cancelTimer();
+            dispatch(toFlush);
+        }
+    }
+
+    private void flushOnTimeout(Batch batch) {
+        synchronized (openBatches) {
+            // Already flushed because it filled up, or dropped because every caller left
+            if (!openBatches.remove(batch.sharedParams, batch)) return;
+        }
+        dispatch(batch);
+    }
+
+    /** A caller cancelled: forget it, and drop its batch or cancel the bulk call if nobody is left waiting. */
+    private void leave(Batch batch, String key, MonoSink<R> sink) {
+        Disposable toCancel = null;
+        synchronized (openBatches) {
+            if (!batch.remove(key, sink) || batch.callerCount > 0) return;
+            if (batch.call == null) {
+                openBatches.remove(batch.sharedParams, batch);
+                batch.cancelTimer();
+            } else {
+                toCancel = batch.call;
+            }
+        }
+        if (toCancel != null) {
+            log.debug("[{}] Every caller of a batch cancelled, cancelling its bulk call", name);
+            toCancel.dispose();
+        }
+    }
+
+    private void dispatch(Batch batch) {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        Disposable.Swap call = Disposables.swap();
+        synchronized (openBatches) {
+            if (batch.callerCount == 0) return; // every caller left before the flush
+            batch.sharedParams.forEach(params::addAll);
+            params.addAll(keyParam, new ArrayList<>(batch.waiters.keySet()));
+            batch.call = call; // from now on, the last caller leaving cancels the call
+            log.debug("[{}] Dispatching batch of {} keys ({} callers)", name, batch.keyCount(), batch.callerCount);
+        }
+
+        // update() disposes the subscription right away if every caller left in the meantime
+        call.update(bulkCall.apply(params)
+                .map(demultiplexer)
+                .defaultIfEmpty(Map.of())
+                .subscribe(
+                        results -> batch.waiting().forEach((key, sinks) -> {
+                            R result = results.get(key);
+                            sinks.forEach(sink -> {
+                                if (result != null) sink.success(result);
+                                else sink.success();
+                            });
+                        }),
+                        error -> batch.waiting().values().forEach(sinks -> sinks.forEach(sink -> sink.error(error)))));
+    }
+
+    private static Map<String, List<String>> normalize(MultiValueMap<String, String> params) {
+        Map<String, List<String>> sorted = new TreeMap<>();
+        if (params != null) {
+            params.forEach((name, values) -> sorted.put(name, values == null ? List.of() : List.copyOf(values)));
+        }
+        return sorted;
+    }
+
+    /** Callers waiting on one bulk call; the same key asked twice is sent once. Guarded by {@code openBatches}. */
+    private final class Batch {
+
+        private final Map<String, List<String>> sharedParams;
+        private final Map<String, List<MonoSink<R>>> waiters = new LinkedHashMap<>();
+        private int callerCount;
+        private Disposable timer;
+        private Disposable.Swap call; // set at dispatch
+
+        private Batch(Map<String, List<String>> sharedParams) {
+            this.sharedParams = sharedParams;
+        }
+
+        void add(String key, MonoSink<R> sink) {
+            waiters.computeIfAbsent(key, k -> new ArrayList<>(1)).add(sink);
+            callerCount++;
+        }
+
+        /** False if the caller was not waiting any more. */
+        boolean remove(String key, MonoSink<R> sink) {
+            List<MonoSink<R>> sinks = waiters.get(key);
+            if (sinks == null || !sinks.remove(sink)) return false;
+            if (sinks.isEmpty()) waiters.remove(key);
+            callerCount--;
+            return true;
+        }
+
+        /** Copy of the callers still waiting, to complete outside the lock. */
+        Map<String, List<MonoSink<R>>> waiting() {
+            synchronized (openBatches) {
+                Map<String, List<MonoSink<R>>> copy = new LinkedHashMap<>();
+                waiters.forEach((key, sinks) -> copy.put(key, List.copyOf(sinks)));
+                return copy;
+            }
+        }
+
+        int keyCount() {
+            return waiters.size();
+        }
+
+        void cancelTimer() {
+            if (timer != null) timer.dispose();
+        }
+    }
+}
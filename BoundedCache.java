@@ -0,0 +1,99 @@
+package com.example.cache;
+
+import com.example.factory.Factory;
+import com.example.model.ApiConfig;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Size-bounded {@link Cache} of per-API values (WebClients, auth headers...), keyed by
+ * {@code factory.generateKey(apiConfig)} and backed by Caffeine (W-TinyLFU eviction).
+ * <p>
+ * A miss creates the value exactly once: concurrent callers of the same key wait for that creation. The
+ * creation runs inside Caffeine's {@code compute}, which locks a hash bin of the map, so a caller of another
+ * key that lands in the same bin may wait for it too: factories must stay short (building a WebClient or a
+ * header, no remote call). Entries not read for {@code expireAfterAccess} are dropped,
+ * so values of rotated configs do not pile up. Evicted values are handed to {@code onRemoval}, e.g. to
+ * close what they hold; a WebClient holds nothing to close, its pooled connections expire with
+ * {@code maxIdleTimeSec}.
+ */
+@Slf4j
+public class BoundedCache<V> implements Cache<V, ApiConfig> {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, V> values;
+
+    public BoundedCache(String name, long maxSize, Duration expireAfterAccess) {
+        this(name, maxSize, expireAfterAccess, value -> { });
+    }
+
+    /**
+     * @param maxSize           maximum number of values kept
+     * @param expireAfterAccess idle time after which a value is dropped, null = never
+     * @param onRemoval         called with each evicted, expired or invalidated value (not on replacement)
+     */
+    public BoundedCache(String name, long maxSize, Duration expireAfterAccess, Consumer<? super V> onRemoval) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize of cache " + name + " must be >= 1");
+        }
+        this.name = name;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats();
+        if (expireAfterAccess != null) {
+            builder.expireAfterAccess(expireAfterAccess);
+        }
+        this.values = builder
+                .<String, V>removalListener((key, value, cause) -> {
+                    if (value == null || cause == RemovalCause.REPLACED) return;
+                    log.debug("[{}] Removing {} ({})", name, key, cause);
+                    try {
+                        onRemoval.accept(value);
+                    } catch (RuntimeException e) {
+                        log.warn("[{}] Releasing {} failed: {}", name, key, e.getMessage());
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public V getOrCreate(ApiConfig apiConfig, Factory<V, ApiConfig> factory) {
+        return values.get(factory.generateKey(apiConfig), key -> factory.create(apiConfig));
+    }
+
+    @Override
+    public String getCacheName() {
+        return name;
+    }
+
+    public void invalidate(String key) {
+        values.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        values.invalidateAll();
+    }
+
+    /** Counters since creation; {@code creations} counts successful factory calls. */
+    public Stats stats() {
+        CacheStats stats = values.stats();
+        return new Stats(name, values.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.loadSuccessCount(), stats.loadFailureCount(), stats.evictionCount(),
+                stats.averageLoadPenalty() / 1e6);
+    }
+
+    public record Stats(String cacheName, long size, long hits, long misses, long creations,
+                        long creationFailures, long evictions, double avgCreateMs) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+    }
+}
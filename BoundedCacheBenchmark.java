@@ -0,0 +1,159 @@
+import com.example.cache.BoundedCache;
+import com.example.cache.Cache;
+import com.example.factory.Factory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark of {@link BoundedCache} against the two usual alternatives: an unbounded
+ * {@code ConcurrentHashMap.computeIfAbsent} (fast, but grows with every config ever seen) and an LRU
+ * {@code LinkedHashMap} under a lock (bounded, but every read is a write and serializes all threads).
+ * <p>
+ * Threads look up configs drawn from a skewed distribution (a few hot APIs, a long tail of rotated ones);
+ * each creation costs {@code createMicros} of CPU, like building a WebClient or signing a header.
+ * <pre>
+ * java BoundedCacheBenchmark [threads] [seconds] [distinctConfigs] [maxSize] [createMicros]
+ * </pre>
+ */
+public class BoundedCacheBenchmark {
+
+    private static final double SKEW = 3.0; // index = n * u^SKEW: ~20% of the keys get ~60% of the lookups
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int distinctConfigs = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+        int maxSize = args.length > 3 ? Integer.parseInt(args[3]) : 1_000;
+        int createMicros = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+
+        ApiConfig[] configs = new ApiConfig[distinctConfigs];
+        for (int i = 0; i < distinctConfigs; i++) {
+            configs[i] = new ApiConfig();
+            configs[i].setName("api-" + i);
+        }
+        System.out.printf("%d threads, %d s, %d configs, maxSize %d, creation %d us%n",
+                threads, seconds, distinctConfigs, maxSize, createMicros);
+
+        for (int round = 0; round < 2; round++) { // first round is JIT warm-up
+            boolean print = round == 1;
+            run(new MapCache(), configs, threads, print ? seconds : 2, createMicros, print);
+            run(new SynchronizedLruCache(maxSize), configs, threads, print ? seconds : 2, createMicros, print);
+            BoundedCache<Object> bounded = new BoundedCache<>("bounded", maxSize, Duration.ofMinutes(10));
+            run(bounded, configs, threads, print ? seconds : 2, createMicros, print);
+            if (print) System.out.println("  " + bounded.stats());
+        }
+    }
+
+    private static void run(Cache<Object, ApiConfig> cache, ApiConfig[] configs, int threads, int seconds,
+                            int createMicros, boolean print) throws InterruptedException {
+        CountingFactory factory = new CountingFactory(createMicros);
+        LongAdder lookups = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long local = 0;
+                    while ((local & 0xFF) != 0 || System.nanoTime() < deadline) {
+                        int index = (int) (configs.length * Math.pow(random.nextDouble(), SKEW));
+                        if (cache.getOrCreate(configs[index], factory) == null) throw new IllegalStateException();
+                        local++;
+                    }
+                    lookups.add(local);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+
+        if (print) {
+            System.out.printf("%-22s %,12.0f lookups/s  %,9d creations (%.2f%% of lookups)%n",
+                    cache.getCacheName(), lookups.sum() / elapsed, factory.creations.sum(),
+                    100.0 * factory.creations.sum() / Math.max(1, lookups.sum()));
+        }
+    }
+
+    /** Spins for the creation cost and counts creations, to check that each miss creates once. */
+    private static final class CountingFactory implements Factory<Object, ApiConfig> {
+
+        private final long createNanos;
+        private final LongAdder creations = new LongAdder();
+
+        private CountingFactory(int createMicros) {
+            this.createNanos = createMicros * 1_000L;
+        }
+
+        @Override
+        public Object create(ApiConfig apiConfig) {
+            creations.increment();
+            long until = System.nanoTime() + createNanos;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            return new Object();
+        }
+
+        @Override
+        public String generateKey(ApiConfig apiConfig) {
+            return apiConfig.getName();
+        }
+    }
+
+    private static final class MapCache implements Cache<Object, ApiConfig> {
+
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+        @Override
+        public Object getOrCreate(ApiConfig apiConfig, Factory<Object, ApiConfig> factory) {
+            return values.computeIfAbsent(factory.generateKey(apiConfig), key -> factory.create(apiConfig));
+        }
+
+        @Override
+        public String getCacheName() {
+            return "unbounded-chm";
+        }
+    }
+
+    private static final class SynchronizedLruCache implements Cache<Object, ApiConfig> {
+
+        private final Map<String, Object> values;
+
+        private SynchronizedLruCache(int maxSize) {
+            this.values = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        @Override
+        public synchronized Object getOrCreate(ApiConfig apiConfig, Factory<Object, ApiConfig> factory) {
+            return values.computeIfAbsent(factory.generateKey(apiConfig), key -> factory.create(apiConfig));
+        }
+
+        @Override
+        public String getCacheName() {
+            return "synchronized-lru";
+        }
+    }
+}
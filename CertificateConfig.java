@@ -0,0 +1,17 @@
+package com.example.model;
+
+import lombok.Data;
+
+/**
+ * {@code certificate:} block of an API in the YAML config.
+ * <p>
+ * Paths are either {@code classpath:...} (loaded once) or file system paths (reloaded when the file changes).
+ */
+@Data
+public class CertificateConfig {
+
+    private String crt;         // client certificate chain (PEM)
+    private String key;         // client private key (PKCS#8 PEM)
+    private String pem;         // trusted CA certificates (PEM), null = JDK default trust store
+    private String keyPassword; // null if the key is not encrypted
+}
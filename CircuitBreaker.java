@@ -0,0 +1,161 @@
+package com.example.executor;
+
+/**
+ * Count-based circuit breaker for one API.
+ * <p>
+ * Outcomes of the last {@code windowSize} calls are kept in a ring. Once at least {@code minCalls} are in it,
+ * the breaker opens when the failure rate or the slow-call rate reaches its threshold. While open, calls are
+ * refused without touching the network; after {@code openNanos} it lets {@code halfOpenCalls} trial calls
+ * through, and closes again only if those trials stay under both thresholds.
+ * <p>
+ * Every state change starts a new generation, and {@link #tryAcquire} hands out the current one as the call's
+ * permit. A result is only counted against the generation its call started in: a late result of a call started
+ * before the breaker opened neither lands in the window of the next CLOSED period nor counts as a trial.
+ * <p>
+ * All state changes happen under the instance lock; each call holds it for a few field updates only.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Returned by {@link #tryAcquire} when the call is refused. */
+    public static final long NOT_PERMITTED = -1L;
+
+    private static final int DEFAULT_MIN_CALLS = 20;
+
+    private final String name;
+    private final int failureRatePct;
+    private final int slowCallRatePct;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final int minCalls;
+
+    // Sliding window of outcomes
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int filled;
+    private int failedCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsDone;
+    private int trialFailures;
+    private int trialSlows;
+
+    public CircuitBreaker(String name, int windowSize, int failureRatePct, int slowCallRatePct,
+                          long slowCallNanos, long openNanos, int halfOpenCalls) {
+        if (windowSize < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("windowSize and halfOpenCalls must be >= 1");
+        }
+        this.name = name;
+        this.failureRatePct = failureRatePct;
+        this.slowCallRatePct = slowCallRatePct;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.minCalls = Math.min(DEFAULT_MIN_CALLS, windowSize);
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    /**
+     * Permit of the call, or {@link #NOT_PERMITTED}; every permitted call must end with {@link #onResult} or
+     * {@link #onCancel}, given that permit.
+     */
+    public synchronized long tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return generation;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return NOT_PERMITTED;
+                }
+                transitionTo(State.HALF_OPEN);
+                // fall through: this call is the first trial
+            case HALF_OPEN:
+            default:
+                if (trialsStarted >= halfOpenCalls) {
+                    return NOT_PERMITTED;
+                }
+                trialsStarted++;
+                return generation;
+        }
+    }
+
+    public synchronized void onResult(long permit, long durationNanos, boolean failure) {
+        if (permit != generation) {
+            return; // late result of a call started in an earlier state
+        }
+        boolean isSlow = slowCallNanos > 0 && durationNanos >= slowCallNanos;
+
+        if (state == State.HALF_OPEN) {
+            trialsDone++;
+            if (failure) trialFailures++;
+            if (isSlow) trialSlows++;
+            if (trialsDone >= halfOpenCalls) {
+                transitionTo(exceeds(trialFailures, trialSlows, trialsDone) ? State.OPEN : State.CLOSED);
+            }
+            return;
+        }
+
+        if (filled == failed.length) {
+            if (failed[next]) failedCount--;
+            if (slow[next]) slowCount--;
+        } else {
+            filled++;
+        }
+        failed[next] = failure;
+        slow[next] = isSlow;
+        if (failure) failedCount++;
+        if (isSlow) slowCount++;
+        next = (next + 1) % failed.length;
+
+        if (filled >= minCalls && exceeds(failedCount, slowCount, filled)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /** A permitted call was cancelled before it produced an outcome. */
+    public synchronized void onCancel(long permit) {
+        if (permit == generation && state == State.HALF_OPEN && trialsStarted > trialsDone) {
+            trialsStarted--; // give the trial slot back
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRatePct() {
+        return filled == 0 ? 0.0 : 100.0 * failedCount / filled;
+    }
+
+    public synchronized double getSlowCallRatePct() {
+        return filled == 0 ? 0.0 : 100.0 * slowCount / filled;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private boolean exceeds(int failures, int slows, int total) {
+        return (failureRatePct > 0 && failures * 100 >= failureRatePct * total)
+                || (slowCallRatePct > 0 && slows * 100 >= slowCallRatePct * total);
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        trialsStarted = trialsDone = trialFailures = trialSlows = 0;
+        if (newState == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (newState == State.CLOSED) {
+            next = filled = failedCount = slowCount = 0;
+        }
+    }
+}
@@ -8,14 +8,6 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-enum Status {
-    CACHE_HIT,
-    CACHE_MISS,
-    API_HIT,
-    API_MISS,
-    UNKNOWN // default
-}
-
 @Data
 public class ClientRequest {
 
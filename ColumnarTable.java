@@ -0,0 +1,399 @@
+import java.util.*;
+
+/**
+ * Rows of the PBOBJECTs of one PBOBJECTLIST, stored column by column instead of one map per row.
+ * <p>
+ * Each COLUMN name becomes a typed column, chosen by its {@code TYPE} attribute the first time it is seen:
+ * {@code Integer} as {@code int[]}, {@code Double} as {@code double[]}, {@code YesNo} as a {@link BitSet},
+ * anything else ({@code Calendar}, no type) as dictionary codes ({@code int[]} into a list of distinct strings).
+ * Nulls are a {@link BitSet} per column. A value that does not parse as its column type is kept as a raw
+ * String on the side, as {@link XmlToMapParser} would. Compared to a {@code HashMap} of boxed values per row,
+ * this takes about 4-12 bytes per cell instead of 50-100, and a column scan reads one contiguous array.
+ * <p>
+ * {@link #row(int)} and {@link #rows()} give a read-only {@code Map} view of a row without copying;
+ * it holds the non-null cells only (a COLUMN present with an empty value reads as absent).
+ */
+public final class ColumnarTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String name;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final List<Column> columnList = new ArrayList<>();
+    private int rowCount;
+
+    ColumnarTable(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public List<String> columnNames() {
+        return List.copyOf(columns.keySet());
+    }
+
+    /** Null if no row has this column. */
+    public Column column(String columnName) {
+        return columns.get(columnName);
+    }
+
+    public Map<String, Object> row(int index) {
+        Objects.checkIndex(index, rowCount);
+        return new RowView(index);
+    }
+
+    public List<Map<String, Object>> rows() {
+        return new AbstractList<>() {
+            @Override
+            public Map<String, Object> get(int index) {
+                return row(index);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    // --- building, called by XmlToMapParser.ColumnarHandler ---
+
+    /** Sets a cell of the current row (index {@code rowCount}); {@code text[start, end)} is trimmed and not "null". */
+    void set(String columnName, String type, char[] text, int start, int end) {
+        Column column = columnFor(columnName, type);
+        column.padTo(rowCount);
+        if (column.size > rowCount) column.size = rowCount; // repeated COLUMN: the last one wins
+        column.append(text, start, end);
+    }
+
+    /** Sets the cell of the current row to null. */
+    void setNull(String columnName, String type) {
+        Column column = columnFor(columnName, type);
+        column.padTo(rowCount);
+        if (column.size > rowCount) column.size = rowCount;
+        column.appendNull();
+    }
+
+    void endRow() {
+        rowCount++;
+    }
+
+    /** Pads columns missing from the last rows and trims the arrays to size. */
+    void finish() {
+        for (Column column : columnList) {
+            column.padTo(rowCount);
+            column.trim();
+        }
+    }
+
+    private Column columnFor(String columnName, String type) {
+        Column column = columns.get(columnName);
+        if (column == null) {
+            column = switch (type == null ? "" : type) {
+                case "Integer" -> new IntColumn(columnName);
+                case "Double" -> new DoubleColumn(columnName);
+                case "YesNo" -> new YesNoColumn(columnName);
+                default -> new StringColumn(columnName, type);
+            };
+            columns.put(columnName, column);
+            columnList.add(column);
+        }
+        return column;
+    }
+
+    /** Read-only view of one row, resolving cells through the columns. */
+    private final class RowView extends AbstractMap<String, Object> {
+
+        private final int index;
+
+        private RowView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Column column = columns.get(key);
+            return column == null ? null : column.get(index);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return columnList.stream()
+                            .filter(column -> !column.isNull(index))
+                            .<Entry<String, Object>>map(column -> new SimpleImmutableEntry<>(column.name, column.get(index)))
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (Column column : columnList) {
+                        if (!column.isNull(index)) size++;
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    /** One column; {@link #get} boxes, typed subclasses give primitive access for scans. */
+    public abstract static sealed class Column permits IntColumn, DoubleColumn, YesNoColumn, StringColumn {
+
+        final String name;
+        final BitSet nulls = new BitSet();
+        Map<Integer, String> rawValues; // row -> text that did not parse as the column type (rare)
+        int size;
+
+        Column(String name) {
+            this.name = name;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /** Number of rows, same as the table's once parsing is done. */
+        public int size() {
+            return size;
+        }
+
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        /** The cell as XmlToMapParser would have produced it, null if null. */
+        public Object get(int row) {
+            if (nulls.get(row)) return null;
+            if (rawValues != null) {
+                String raw = rawValues.get(row);
+                if (raw != null) return raw;
+            }
+            return value(row);
+        }
+
+        abstract Object value(int row);
+
+        abstract void grow(int capacity);
+
+        abstract int capacity();
+
+        /** Appends the typed value, false if the text does not parse. */
+        abstract boolean parse(char[] text, int start, int end);
+
+        void append(char[] text, int start, int end) {
+            ensureCapacity();
+            nulls.clear(size);
+            if (rawValues != null) rawValues.remove(size);
+            if (!parse(text, start, end)) {
+                if (rawValues == null) rawValues = new HashMap<>();
+                rawValues.put(size, new String(text, start, end - start));
+            }
+            size++;
+        }
+
+        void appendNull() {
+            ensureCapacity();
+            nulls.set(size);
+            size++;
+        }
+
+        void padTo(int rows) {
+            while (size < rows) appendNull();
+        }
+
+        void trim() {
+            if (capacity() > size) grow(size);
+        }
+
+        private void ensureCapacity() {
+            if (size == capacity()) grow(Math.max(INITIAL_CAPACITY, size * 2));
+        }
+    }
+
+    public static final class IntColumn extends Column {
+
+        private int[] values = new int[0];
+
+        IntColumn(String name) {
+            super(name);
+        }
+
+        /** Backing array, valid up to {@link #size()}; meaningless where {@link #isNull} is true. */
+        public int[] values() {
+            return values;
+        }
+
+        public int getInt(int row) {
+            return values[row];
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean parse(char[] text, int start, int end) {
+            Integer value = XmlToMapParser.PbObjectHandler.parseInt(text, start, end);
+            if (value == null) return false;
+            values[size] = value;
+            return true;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+
+        private double[] values = new double[0];
+
+        DoubleColumn(String name) {
+            super(name);
+        }
+
+        /** Backing array, valid up to {@link #size()}; meaningless where {@link #isNull} is true. */
+        public double[] values() {
+            return values;
+        }
+
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+
+        @Override
+        boolean parse(char[] text, int start, int end) {
+            Double value = XmlToMapParser.PbObjectHandler.parseDouble(text, start, end);
+            if (value == null) return false;
+            values[size] = value;
+            return true;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+    }
+
+    public static final class YesNoColumn extends Column {
+
+        private final BitSet values = new BitSet();
+        private int capacity;
+
+        YesNoColumn(String name) {
+            super(name);
+        }
+
+        public boolean getBoolean(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        Object value(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        boolean parse(char[] text, int start, int end) {
+            values.set(size, end - start == 3 && XmlToMapParser.PbObjectHandler.regionEqualsIgnoreCase(text, start, "Yes"));
+            return true;
+        }
+
+        @Override
+        void grow(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        int capacity() {
+            return capacity;
+        }
+    }
+
+    /** Dictionary-encoded text: each distinct value is stored once, rows hold its code. */
+    public static final class StringColumn extends Column {
+
+        private final String type;
+        private int[] codes = new int[0];
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+
+        StringColumn(String name, String type) {
+            super(name);
+            this.type = type;
+        }
+
+        /** TYPE attribute of the column (e.g. {@code Calendar}), null if none. */
+        public String type() {
+            return type;
+        }
+
+        /** Backing array of codes into {@link #dictionary()}, valid up to {@link #size()}. */
+        public int[] codes() {
+            return codes;
+        }
+
+        public List<String> dictionary() {
+            return Collections.unmodifiableList(dictionary);
+        }
+
+        @Override
+        Object value(int row) {
+            return dictionary.get(codes[row]);
+        }
+
+        @Override
+        boolean parse(char[] text, int start, int end) {
+            String value = new String(text, start, end - start);
+            Integer code = codesByValue.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                codesByValue.put(value, code);
+            }
+            codes[size] = code;
+            return true;
+        }
+
+        @Override
+        void grow(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override
+        int capacity() {
+            return codes.length;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.compression.Zstd;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Response compression of one API: which encodings to advertise and the pipeline handlers that
+ * decompress the body chunk by chunk, so that streaming decoders receive plain bytes as they arrive.
+ * <p>
+ * The handlers are installed per request, on the channel that carries its response: the connection itself
+ * for HTTP/1.1, but the stream child channel for H2/H2C, where the connection pipeline only sees HTTP/2 frames.
+ * reactor-netty removes them when the request completes.
+ * <p>
+ * Body bytes are counted before and after decompression; the ratio shows what the link actually saves.
+ */
+@Slf4j
+final class CompressionSupport {
+
+    private static final List<String> SUPPORTED = List.of("gzip", "deflate", "zstd");
+
+    private final String acceptEncoding;
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+
+    private CompressionSupport(String acceptEncoding) {
+        this.acceptEncoding = acceptEncoding;
+    }
+
+    /**
+     * Parses {@code compression: "gzip, deflate, zstd"}; returns null when compression is off.
+     * zstd is dropped (with a warning) if zstd-jni is not on the classpath.
+     */
+    static CompressionSupport from(String apiName, String compression) {
+        if (compression == null || compression.isBlank() || "none".equalsIgnoreCase(compression.trim())) {
+            return null;
+        }
+        List<String> encodings = new ArrayList<>();
+        for (String encoding : compression.toLowerCase(Locale.ROOT).split("\\s*,\\s*")) {
+            if (!SUPPORTED.contains(encoding)) {
+                throw new IllegalArgumentException("Unsupported compression '" + encoding + "' for " + apiName);
+            }
+            if ("zstd".equals(encoding) && !Zstd.isAvailable()) {
+                log.warn("[{}] zstd requested but zstd-jni is not available, not advertising it", apiName);
+                continue;
+            }
+            encodings.add(encoding);
+        }
+        return encodings.isEmpty() ? null : new CompressionSupport(String.join(", ", encodings));
+    }
+
+    /** Advertises the encodings and decompresses every response of {@code httpClient}, whatever its protocol. */
+    HttpClient apply(HttpClient httpClient) {
+        return httpClient
+                .headers(headers -> headers.set(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding))
+                .doOnRequest((request, connection) -> install(connection));
+    }
+
+    /** Inbound order: HTTP codec -> compressed counter -> decompressor -> ... -> uncompressed counter. */
+    private void install(Connection connection) {
+        connection.addHandlerFirst("api.decompressor", new HttpContentDecompressor());
+        connection.addHandlerFirst("api.compressedBytes", new BodyByteCounter(compressedBytes));
+        connection.addHandlerLast("api.uncompressedBytes", new BodyByteCounter(uncompressedBytes));
+    }
+
+    long compressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    long uncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    /** Counts response body bytes going through this point of the pipeline. */
+    @ChannelHandler.Sharable
+    private static final class BodyByteCounter extends ChannelInboundHandlerAdapter {
+
+        private final LongAdder counter;
+
+        private BodyByteCounter(LongAdder counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof HttpContent content) {
+                counter.add(content.content().readableBytes());
+            }
+            ctx.fireChannelRead(msg);
+        }
+    }
+}
+
+
+<dependencies>
+    <!-- Optional: zstd decompression, advertised only when present -->
+    <dependency>
+        <groupId>com.github.luben</groupId>
+        <artifactId>zstd-jni</artifactId>
+        <version>1.5.6-3</version>
+    </dependency>
+</dependencies>
@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionSupportTest {
+
+    private static final String PAYLOAD = "{\"dataframe\": [" + "{\"internal_security_id\": 1, \"price\": 100.0}, ".repeat(500) + "{}]}";
+
+    private DisposableServer server;
+
+    @BeforeEach
+    void setUp() {
+        // Gzips every response whose request accepts it, over HTTP/1.1 and H2C alike
+        server = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .compress(true)
+                .handle((request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just(PAYLOAD)))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void testApply_h2c_decompressesOnStreamChannel() {
+        assertDecompressed(HttpProtocol.H2C, "HTTP/2.0");
+    }
+
+    @Test
+    void testApply_http11_decompressesOnConnection() {
+        assertDecompressed(HttpProtocol.HTTP11, "HTTP/1.1");
+    }
+
+    private void assertDecompressed(HttpProtocol protocol, String expectedVersion) {
+        CompressionSupport compression = CompressionSupport.from("stub", "gzip");
+        HttpClient httpClient = compression.apply(HttpClient.create().protocol(protocol))
+                .baseUrl("http://localhost:" + server.port());
+
+        for (int i = 0; i < 3; i++) { // same connection, handlers installed and removed per request
+            String[] version = new String[1];
+            String body = httpClient.get()
+                    .uri("/prices")
+                    .responseSingle((response, content) -> {
+                        version[0] = response.version().text();
+                        return content.asString();
+                    })
+                    .block(Duration.ofSeconds(10));
+
+            assertEquals(expectedVersion, version[0]);
+            assertEquals(PAYLOAD, body);
+        }
+
+        assertEquals(3L * PAYLOAD.length(), compression.uncompressedBytes());
+        assertTrue(compression.compressedBytes() > 0);
+        assertTrue(compression.compressedBytes() < compression.uncompressedBytes() / 10,
+                "gzip bytes: " + compression.compressedBytes());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.security;
+
+import com.example.model.ApiConfig;
+import com.example.model.ApiProtocol;
+import com.example.model.CertificateConfig;
+import io.netty.handler.codec.http2.Http2SecurityUtil;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.SupportedCipherSuiteFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the credentials of each API once and keeps them ready for every request.
+ * <p>
+ * <ul>
+ *   <li>SSL: the {@code certificate:} files are read once and turned into an {@link SslContext}, backed by
+ *   OpenSSL (netty-tcnative) when it is on the classpath, JDK otherwise, with a client session cache so that
+ *   reconnections resume TLS sessions instead of doing full handshakes. For H2 APIs, ALPN advertises h2.</li>
+ *   <li>Auth: the Basic {@code Authorization} header is encoded once per API.</li>
+ *   <li>Reload: file system certificates are checked every {@code reloadCheckIntervalSec} seconds and the
+ *   context is rebuilt when one of them changed; new connections pick it up, open ones are untouched.</li>
+ * </ul>
+ */
+@Slf4j
+public class CredentialStore implements AutoCloseable {
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final int DEFAULT_RELOAD_CHECK_INTERVAL_SEC = 30;
+    private static final int SESSION_CACHE_SIZE = 1024;
+    private static final int SESSION_TIMEOUT_SEC = 3600;
+
+    private final Map<String, ApiCredentials> credentialsByApi = new ConcurrentHashMap<>();
+    private final Disposable reloadTask;
+
+    public CredentialStore() {
+        this(DEFAULT_RELOAD_CHECK_INTERVAL_SEC);
+    }
+
+    public CredentialStore(int reloadCheckIntervalSec) {
+        this.reloadTask = reloadCheckIntervalSec > 0
+                ? Schedulers.single().schedulePeriodically(this::reloadChanged,
+                        reloadCheckIntervalSec, reloadCheckIntervalSec, TimeUnit.SECONDS)
+                : null;
+        log.info("SSL provider: {}", OpenSsl.isAvailable() ? "OpenSSL " + OpenSsl.versionString() : "JDK");
+    }
+
+    /**
+     * SSL context built from the {@code certificate:} block, or null if the API has none.
+     * Always the same instance for one API, even across reloads.
+     */
+    public SslContext sslContext(ApiConfig apiConfig) {
+        if (apiConfig.getCertificate() == null) {
+            return null;
+        }
+        return credentialsFor(apiConfig).sslContext;
+    }
+
+    /** Pre-encoded auth headers of the API (empty if it has no username). */
+    public Map<String, String> authHeaders(ApiConfig apiConfig) {
+        return credentialsFor(apiConfig).authHeaders;
+    }
+
+    /** Forces a reload of every file-based certificate that changed since it was last read. */
+    public void reloadChanged() {
+        credentialsByApi.values().forEach(ApiCredentials::reloadIfChanged);
+    }
+
+    @Override
+    public void close() {
+        if (reloadTask != null) reloadTask.dispose();
+    }
+
+    private ApiCredentials credentialsFor(ApiConfig apiConfig) {
+        return credentialsByApi.computeIfAbsent(apiConfig.getName(), name -> new ApiCredentials(apiConfig));
+    }
+
+    private static Map<String, String> encodeAuthHeaders(ApiConfig apiConfig) {
+        if (apiConfig.getUsername() == null) {
+            return Map.of();
+        }
+        String credentials = apiConfig.getUsername() + ":" + Optional.ofNullable(apiConfig.getPassword()).orElse("");
+        String encoded = Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        return Map.of(HttpHeaders.AUTHORIZATION, "Basic " + encoded);
+    }
+
+    /** Credentials of one API; the SSL context is rebuilt in place when its files change. */
+    private static final class ApiCredentials {
+
+        private final ApiConfig apiConfig;
+        private final Map<String, String> authHeaders;
+        private final ReloadableSslContext sslContext;
+        // path -> last modified millis of the files the current SSL context was built from
+        private final Map<Path, Long> watchedFiles = new HashMap<>();
+
+        private ApiCredentials(ApiConfig apiConfig) {
+            this.apiConfig = apiConfig;
+            this.authHeaders = encodeAuthHeaders(apiConfig);
+            this.sslContext = apiConfig.getCertificate() != null
+                    ? new ReloadableSslContext(buildSslContext(watchedFiles))
+                    : null;
+        }
+
+        synchronized void reloadIfChanged() {
+            if (sslContext == null || watchedFiles.isEmpty()) {
+                return;
+            }
+            boolean changed = watchedFiles.entrySet().stream()
+                    .anyMatch(entry -> lastModified(entry.getKey()) != entry.getValue());
+            if (!changed) {
+                return;
+            }
+            try {
+                Map<Path, Long> readFiles = new HashMap<>();
+                sslContext.update(buildSslContext(readFiles));
+                // Only now: after a failed reload the files still look changed, and the next check retries
+                watchedFiles.clear();
+                watchedFiles.putAll(readFiles);
+                log.info("[{}] Certificates changed on disk, SSL context reloaded", apiConfig.getName());
+            } catch (RuntimeException e) {
+                // Half-written files or a bad key: keep serving with the previous context
+                log.error("[{}] SSL context reload failed, keeping previous one: {}", apiConfig.getName(), e.getMessage());
+            }
+        }
+
+        /** Builds the context from the configured files; the file system ones go into {@code readFiles}. */
+        private SslContext buildSslContext(Map<Path, Long> readFiles) {
+            CertificateConfig certificate = apiConfig.getCertificate();
+            try {
+                SslContextBuilder builder = SslContextBuilder.forClient()
+                        .sslProvider(OpenSsl.isAvailable() ? SslProvider.OPENSSL : SslProvider.JDK)
+                        .sessionCacheSize(SESSION_CACHE_SIZE)
+                        .sessionTimeout(SESSION_TIMEOUT_SEC);
+
+                if (certificate.getCrt() != null && certificate.getKey() != null) {
+                    builder.keyManager(read(certificate.getCrt(), readFiles), read(certificate.getKey(), readFiles),
+                            certificate.getKeyPassword());
+                }
+                if (certificate.getPem() != null) {
+                    builder.trustManager(read(certificate.getPem(), readFiles));
+                }
+                if (ApiProtocol.from(apiConfig.getProtocol()) == ApiProtocol.H2) { // also "HTTP2", "HTTP/2"
+                    builder.ciphers(Http2SecurityUtil.CIPHERS, SupportedCipherSuiteFilter.INSTANCE)
+                            .applicationProtocolConfig(new ApplicationProtocolConfig(
+                                    ApplicationProtocolConfig.Protocol.ALPN,
+                                    ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                                    ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                                    ApplicationProtocolNames.HTTP_2,
+                                    ApplicationProtocolNames.HTTP_1_1));
+                }
+                return builder.build();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot build SSL context for " + apiConfig.getName(), e);
+            }
+        }
+
+        /** Reads the whole file once; a file system path goes into {@code readFiles} with its last modified time. */
+        private static InputStream read(String location, Map<Path, Long> readFiles) throws IOException {
+            if (location.startsWith(CLASSPATH_PREFIX)) {
+                String resource = location.substring(CLASSPATH_PREFIX.length());
+                try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+                    if (in == null) {
+                        throw new IOException("Classpath resource not found: " + resource);
+                    }
+                    return new ByteArrayInputStream(in.readAllBytes());
+                }
+            }
+            Path path = Paths.get(location);
+            readFiles.put(path, lastModified(path));
+            return new ByteArrayInputStream(Files.readAllBytes(path));
+        }
+
+        private static long lastModified(Path path) {
+            try {
+                return Files.getLastModifiedTime(path).toMillis();
+            } catch (IOException e) {
+                return -1L;
+            }
+        }
+    }
+}
+
+
+<dependencies>
+    <!-- Optional: OpenSSL-backed TLS, picked up automatically when present -->
+    <dependency>
+        <groupId>io.netty</groupId>
+        <artifactId>netty-tcnative-boringssl-static</artifactId>
+    </dependency>
+</dependencies>
@@ -4,70 +4,155 @@ public class CoherenceFilters {
     public static <T> Filter<T> eq(String fieldPath, Object value) {
         return Filters.equal(new GenericValueExtractor<>(fieldPath), value);
     }
+
+    /** Equal filter for nested fields, evaluated on the serialized POF entry without deserializing it */
+    public static <T> Filter<T> eqPof(Class<?> type, String fieldPath, Object value) {
+        return Filters.equal(PofPathExtractor.forConfig("pof-config.xml").<T, Object>extractor(type, fieldPath), value);
+    }
 }
 
+/**
+ * Extracts a value by a dotted field path such as {@code order.legs[0].price}, reading private fields.
+ * <p>
+ * The path is compiled once, at construction, into one segment per step. Each segment keeps an inline cache
+ * of the last concrete class it saw and that class's field getter, a {@code MethodHandle} typed
+ * {@code (Object)Object}. In filter evaluation, where every entry has the same classes, a step costs one
+ * class check and one field load, with no string splitting, map lookup or reflective {@code Field.get}.
+ * A new class takes the slow path once, through getters shared by all extractors.
+ */
 public class GenericValueExtractor<T> implements ValueExtractor<T, Object>, Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    // Getters shared by all extractors: Class -> field name -> (Object)Object getter
+    private static final ClassValue<Map<String, MethodHandle>> GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private final String fieldPath;
 
-    // Cache: Class -> FieldName -> Field
-    private static final Map<Class<?>, Map<String, Field>> FIELD_CACHE = new ConcurrentHashMap<>();
+    // Compiled from fieldPath; not serialized, readResolve compiles it again
+    private final transient Segment[] segments;
 
     public GenericValueExtractor(String fieldPath) {
         this.fieldPath = fieldPath;
+        this.segments = compile(fieldPath);
     }
 
     @Override
     public Object extract(T target) {
         try {
             Object current = target;
-            for (String part : fieldPath.split("\\.")) {
+            for (Segment segment : segments) {
                 if (current == null) return null;
+                current = segment.get(current);
+            }
+            return current;
+        } catch (Error e) {
+            throw e; // OutOfMemoryError, StackOverflowError...: nothing to do with the path
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to extract field: " + fieldPath, e);
+        }
+    }
 
-                // Check if part has index, e.g., reference[0]
-                String fieldName = part;
-                Integer index = null;
-                if (part.contains("[") && part.endsWith("]")) {
-                    int start = part.indexOf('[');
-                    fieldName = part.substring(0, start);
-                    index = Integer.parseInt(part.substring(start + 1, part.length() - 1));
-                }
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GenericValueExtractor<?> extractor && fieldPath.equals(extractor.fieldPath);
+    }
+
+    @Override
+    public int hashCode() {
+        return fieldPath.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "GenericValueExtractor(" + fieldPath + ")";
+    }
 
-                current = getFieldValue(current, fieldName);
+    private Object readResolve() {
+        return new GenericValueExtractor<T>(fieldPath);
+    }
+
+    private static Segment[] compile(String fieldPath) {
+        String[] parts = fieldPath.split("\\.");
+        Segment[] segments = new Segment[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            // Index, e.g. reference[0]
+            int start = part.indexOf('[');
+            if (start >= 0 && part.endsWith("]")) {
+                segments[i] = new Segment(part.substring(0, start),
+                        Integer.parseInt(part.substring(start + 1, part.length() - 1)));
+            } else {
+                segments[i] = new Segment(part, -1);
+            }
+        }
+        return segments;
+    }
 
-                if (index != null) {
-                    if (current instanceof List<?> list) {
-                        current = index < list.size() ? list.get(index) : null;
-                    } else if (current != null && current.getClass().isArray()) {
-                        Object[] array = (Object[]) current;
-                        current = index < array.length ? array[index] : null;
-                    } else {
-                        current = null;
+    private static MethodHandle getter(Class<?> type, String fieldName) {
+        return GETTERS.get(type).computeIfAbsent(fieldName, name -> {
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                try {
+                    Field field = c.getDeclaredField(name);
+                    field.setAccessible(true);
+                    MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        getter = MethodHandles.dropArguments(getter, 0, Object.class);
                     }
+                    return getter.asType(GETTER_TYPE);
+                } catch (NoSuchFieldException e) {
+                    // declared in a superclass
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot read " + name + " of " + type.getName(), e);
                 }
             }
-            return current;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to extract field: " + fieldPath, e);
+            throw new IllegalArgumentException("No field " + name + " in " + type.getName());
+        });
+    }
+
+    private static Object element(Object container, int index) {
+        if (container instanceof List<?> list) {
+            return index < list.size() ? list.get(index) : null;
         }
+        if (container != null && container.getClass().isArray()) {
+            return index < Array.getLength(container) ? Array.get(container, index) : null;
+        }
+        return null;
     }
 
-    private Object getFieldValue(Object obj, String fieldName) throws NoSuchFieldException, IllegalAccessException {
-        Class<?> clazz = obj.getClass();
-        Map<String, Field> classCache = FIELD_CACHE.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>());
-
-        Field field = classCache.computeIfAbsent(fieldName, f -> {
-            try {
-                Field fld = clazz.getDeclaredField(f);
-                fld.setAccessible(true);
-                return fld;
-            } catch (NoSuchFieldException e) {
-                throw new RuntimeException(e);
+    /** One step of the path, with a monomorphic inline cache of the getter for the last class seen. */
+    private static final class Segment {
+
+        private final String fieldName;
+        private final int index; // -1 if not indexed
+
+        // Racy but safe: an Accessor is immutable, a thread at worst looks the getter up again
+        private Accessor cache;
+
+        private Segment(String fieldName, int index) {
+            this.fieldName = fieldName;
+            this.index = index;
+        }
+
+        Object get(Object target) throws Throwable {
+            Class<?> type = target.getClass();
+            Accessor accessor = cache;
+            if (accessor == null || accessor.type() != type) {
+                accessor = new Accessor(type, getter(type, fieldName));
+                cache = accessor;
             }
-        });
+            Object value = (Object) accessor.getter().invokeExact(target);
+            return index < 0 ? value : element(value, index);
+        }
+    }
 
-        return field.get(obj);
+    private record Accessor(Class<?> type, MethodHandle getter) {
     }
 }
@@ -0,0 +1,95 @@
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares HTTP/1.1 pooling with HTTP/2 multiplexing through {@link WebClientFactory},
+ * against the in-process {@link StubServer} answering after a fixed latency.
+ * <p>
+ * H2C is used so no certificate is needed; H2 over TLS behaves the same once ALPN is done.
+ * <pre>
+ * java Http2MultiplexingBenchmark [requests] [concurrency] [latencyMs] [http11MaxConnections]
+ * </pre>
+ */
+public class Http2MultiplexingBenchmark {
+
+    private static final int PAYLOAD_BYTES = 64; // one dataframe row
+
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int latencyMs = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int http11MaxConnections = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        // === Stub server: HTTP/1.1 and H2C on the same port ===
+        try (StubServer server = new StubServer(
+                StubServer.LatencyDistribution.parse("fixed:" + latencyMs), PAYLOAD_BYTES, 0.0)) {
+            String baseUrl = server.baseUrl();
+            System.out.printf("Stub server on %s, %d requests, concurrency %d, latency %d ms%n",
+                    baseUrl, requests, concurrency, latencyMs);
+
+            WebClientFactory factory = new WebClientFactory();
+
+            ApiConfig http11 = apiConfig("bench-http11", baseUrl, "HTTP11", http11MaxConnections);
+            ApiConfig h2c = apiConfig("bench-h2c", baseUrl, "H2C", 1);
+            h2c.setMaxConcurrentStreams(concurrency);
+
+            WebClient http11Client = factory.create(http11);
+            WebClient h2cClient = factory.create(h2c);
+
+            // Warm-up round so that JIT and handshakes are not measured
+            run(factory, http11, http11Client, Math.min(requests, 2_000), concurrency);
+            run(factory, h2c, h2cClient, Math.min(requests, 2_000), concurrency);
+
+            run(factory, http11, http11Client, requests, concurrency).print();
+            run(factory, h2c, h2cClient, requests, concurrency).print();
+        }
+    }
+
+    private static ApiConfig apiConfig(String name, String baseUrl, String protocol, int maxConnections) {
+        ApiConfig apiConfig = new ApiConfig();
+        apiConfig.setName(name);
+        apiConfig.setBaseUrl(baseUrl);
+        apiConfig.setType("REST");
+        apiConfig.setProtocol(protocol);
+        apiConfig.setMaxConnections(maxConnections);
+        apiConfig.setPendingAcquireTimeoutSec(60);
+        return apiConfig;
+    }
+
+    private static Result run(WebClientFactory factory, ApiConfig apiConfig, WebClient webClient,
+                              int requests, int concurrency) {
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger maxPending = new AtomicInteger();
+
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> webClient.get()
+                        .uri("/price")
+                        .retrieve()
+                        .bodyToMono(String.class)
+                        .doOnSuccess(body -> maxPending.accumulateAndGet(
+                                factory.getPoolStats(apiConfig.getName()).pendingAcquire(), Math::max))
+                        .onErrorResume(e -> {
+                            errors.incrementAndGet();
+                            return Mono.empty();
+                        }), concurrency)
+                .blockLast();
+        long elapsedNanos = System.nanoTime() - start;
+
+        return new Result(apiConfig.getProtocol(), requests, errors.get(), elapsedNanos,
+                factory.getPoolStats(apiConfig.getName()), maxPending.get());
+    }
+
+    private record Result(String protocol, int requests, int errors, long elapsedNanos,
+                          WebClientFactory.PoolStats pool, int maxPending) {
+
+        void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("%-6s | %8.0f req/s | %6.2f s | errors %d | connections %d | max pending acquire %d%n",
+                    protocol, requests / seconds, seconds, errors, pool.allocated(), maxPending);
+        }
+    }
+}
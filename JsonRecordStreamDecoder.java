@@ -0,0 +1,184 @@
+package com.example.executor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Incremental JSON decoder on top of Jackson's non-blocking parser.
+ * <p>
+ * Emits every object of the array held by the top-level field {@code recordsField} (e.g. {@code "dataframe"} in
+ * {@code {"dataframe": [{...}, {...}]}}), or of the top-level array when {@code recordsField} is null. An array of
+ * the same name nested elsewhere, e.g. in {@code {"meta": {"dataframe": [...]}}}, is not the records array.
+ * Only the record being built is kept in memory, whatever the payload size.
+ */
+public class JsonRecordStreamDecoder implements RecordStreamDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String recordsField;
+
+    public JsonRecordStreamDecoder(String recordsField) {
+        this.recordsField = recordsField;
+    }
+
+    @Override
+    public Flux<Map<String, Object>> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            Tokenizer tokenizer = new Tokenizer();
+            return body
+                    .concatMapIterable(tokenizer::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .doFinally(signal -> tokenizer.close());
+        });
+    }
+
+    /** One parser per subscription: holds the partial token state between chunks. */
+    private final class Tokenizer {
+
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+
+        // Containers of the record being built, innermost on top
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private boolean inRecordsArray;
+        private int skipDepth; // > 0 while inside a non-object element of the records array
+
+        private Tokenizer() {
+            try {
+                this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+                this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create non-blocking JSON parser", e);
+            }
+        }
+
+        List<Map<String, Object>> feed(DataBuffer buffer) {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                feeder.feedInput(bytes, 0, bytes.length);
+            } catch (IOException e) {
+                throw new DecodingException("Invalid JSON chunk", e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return drain();
+        }
+
+        List<Map<String, Object>> endOfInput() {
+            feeder.endOfInput();
+            List<Map<String, Object>> records = drain();
+            if (!frames.isEmpty()) {
+                throw new DecodingException("Truncated JSON: record not closed at end of input");
+            }
+            return records;
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+
+        private List<Map<String, Object>> drain() {
+            List<Map<String, Object>> records = List.of();
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                    Map<String, Object> record = onToken(token);
+                    if (record != null) {
+                        if (records.isEmpty()) records = new ArrayList<>();
+                        records.add(record);
+                    }
+                }
+            } catch (IOException e) {
+                throw new DecodingException("Invalid JSON: " + e.getMessage(), e);
+            }
+            return records;
+        }
+
+        /** Returns the completed record, if this token closed one. */
+        @SuppressWarnings("unchecked")
+        private Map<String, Object> onToken(JsonToken token) throws IOException {
+            if (frames.isEmpty()) {
+                if (!inRecordsArray) {
+                    inRecordsArray = token == JsonToken.START_ARRAY && isRecordsArray();
+                    return null;
+                }
+                if (skipDepth > 0) { // non-object element: not a record (skipChildren() cannot wait for input)
+                    if (token == JsonToken.START_ARRAY) skipDepth++;
+                    else if (token == JsonToken.END_ARRAY) skipDepth--;
+                    return null;
+                }
+                switch (token) {
+                    case END_ARRAY -> inRecordsArray = false;
+                    case START_OBJECT -> frames.push(new Frame(new LinkedHashMap<String, Object>(), null));
+                    case START_ARRAY -> skipDepth = 1;
+                    default -> { /* scalar element: not a record */ }
+                }
+                return null;
+            }
+
+            switch (token) {
+                case FIELD_NAME -> { /* picked up through currentName() on the value token */ }
+                case START_OBJECT -> frames.push(new Frame(new LinkedHashMap<String, Object>(), parser.currentName()));
+                case START_ARRAY -> frames.push(new Frame(new ArrayList<>(), parser.currentName()));
+                case END_OBJECT, END_ARRAY -> {
+                    Frame done = frames.pop();
+                    if (frames.isEmpty()) {
+                        return (Map<String, Object>) done.container();
+                    }
+                    add(done.name(), done.container());
+                }
+                default -> add(parser.currentName(), scalarValue(token));
+            }
+            return null;
+        }
+
+        /** On a START_ARRAY: the top-level array, or the {@code recordsField} of the top-level object. */
+        private boolean isRecordsArray() {
+            JsonStreamContext parent = parser.getParsingContext().getParent();
+            if (recordsField == null) {
+                return parent.inRoot();
+            }
+            return parent.inObject() && parent.getParent().inRoot() && recordsField.equals(parser.currentName());
+        }
+
+        @SuppressWarnings("unchecked")
+        private void add(String name, Object value) {
+            Object parent = frames.peek().container();
+            if (parent instanceof Map<?, ?> map) {
+                ((Map<String, Object>) map).put(name, value);
+            } else {
+                ((List<Object>) parent).add(value);
+            }
+        }
+
+        private Object scalarValue(JsonToken token) throws IOException {
+            return switch (token) {
+                case VALUE_STRING -> parser.getText();
+                case VALUE_NUMBER_INT -> parser.getNumberValue();
+                case VALUE_NUMBER_FLOAT -> parser.getDoubleValue();
+                case VALUE_TRUE -> Boolean.TRUE;
+                case VALUE_FALSE -> Boolean.FALSE;
+                default -> null;
+            };
+        }
+    }
+
+    private record Frame(Object container, String name) {
+    }
+}
@@ -0,0 +1,153 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Types for the text leaves of the XML-to-map parsers, so that numbers and flags are stored once as
+ * {@code Integer}, {@code Long}, {@code Double} or {@code Boolean} instead of being re-parsed from Strings
+ * by every consumer.
+ * <p>
+ * A {@code TYPE} attribute, when present, decides ({@link #convertTyped}), and keys typed that way are left out
+ * of inference ({@link #declare}). Otherwise the type of a key is inferred from sample values ({@link #observe}):
+ * the narrowest of boolean, int, long and double that all of them fit, or text. Values are converted by key
+ * afterwards ({@link #convert}); a key never sampled, or a value that does not itself read as the inferred type,
+ * stays text. Codes with leading zeros ({@code 007}), signs other than {@code -} and Java-only number forms
+ * ({@code 1f}, {@code 12D}, {@code Infinity}) are text, so identifiers are never altered.
+ */
+final class LeafTypes {
+
+    enum Kind { BOOLEAN, INTEGER, LONG, DOUBLE, TEXT }
+
+    private final Map<String, Kind> kinds = new HashMap<>();
+    private final Set<String> declared = new HashSet<>();
+
+    /** Marks {@code key} as typed by a {@code TYPE} attribute: it is neither sampled nor converted by key. */
+    void declare(String key) {
+        declared.add(key);
+        kinds.remove(key);
+    }
+
+    /** Adds a sample value of {@code key}. */
+    void observe(String key, String text) {
+        Kind kind = kindOf(text);
+        if (kind != null && !declared.contains(key)) {
+            kinds.merge(key, kind, LeafTypes::widen);
+        }
+    }
+
+    /** Samples every String leaf of a record; nested maps are keyed by their path, e.g. {@code price/bid}. */
+    void observeAll(Map<String, Object> record) {
+        walk(record, null, false);
+    }
+
+    /** Converts every String leaf of a record in place, by the types sampled so far. */
+    void convertAll(Map<String, Object> record) {
+        walk(record, null, true);
+    }
+
+    /** The value as its key's inferred type; the text itself if unknown, text, or not a value of that type. */
+    Object convert(String key, String text) {
+        Kind kind = kinds.get(key);
+        if (kind == null || kind == Kind.TEXT) return text;
+        Kind valueKind = kindOf(text);
+        return valueKind != null && widen(kind, valueKind) == kind ? parse(kind, text) : text;
+    }
+
+    /** The value as its {@code TYPE} attribute says, as {@code XmlToMapParser} does; the text if it does not parse. */
+    static Object convertTyped(String type, String text) {
+        if (type == null || text == null) return text;
+        return switch (type) {
+            case "Integer" -> parse(Kind.INTEGER, text);
+            case "Long" -> parse(Kind.LONG, text);
+            case "Double" -> parse(Kind.DOUBLE, text);
+            case "YesNo" -> text.isBlank() ? text : (Object) text.trim().equalsIgnoreCase("Yes");
+            default -> text; // Calendar, String
+        };
+    }
+
+    private static Object parse(Kind kind, String text) {
+        String value = text.trim();
+        if (value.isEmpty()) return text;
+        try {
+            return switch (kind) {
+                case BOOLEAN -> value.equalsIgnoreCase("true") || value.equalsIgnoreCase("yes") ? Boolean.TRUE
+                        : value.equalsIgnoreCase("false") || value.equalsIgnoreCase("no") ? Boolean.FALSE : text;
+                case INTEGER -> Integer.valueOf(value);
+                case LONG -> Long.valueOf(value);
+                case DOUBLE -> Double.valueOf(value);
+                case TEXT -> text;
+            };
+        } catch (NumberFormatException e) {
+            return text;
+        }
+    }
+
+    /** Narrowest kind of one value, null if blank or "null" (no information). Scans chars, no exception thrown. */
+    static Kind kindOf(String text) {
+        if (text == null) return null;
+        String value = text.trim();
+        if (value.isEmpty() || value.equalsIgnoreCase("null")) return null;
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")
+                || value.equalsIgnoreCase("yes") || value.equalsIgnoreCase("no")) {
+            return Kind.BOOLEAN;
+        }
+        int i = value.charAt(0) == '-' ? 1 : 0;
+        int intStart = i;
+        while (i < value.length() && Character.isDigit(value.charAt(i))) i++;
+        int intDigits = i - intStart;
+        if (intDigits == 0 || (intDigits > 1 && value.charAt(intStart) == '0')) return Kind.TEXT;
+        if (i == value.length()) {
+            if (intDigits < 10) return Kind.INTEGER;
+            if (intDigits < 19) return Kind.LONG;
+            return Kind.TEXT; // may not fit a long, and is likely an identifier
+        }
+        if (value.charAt(i) == '.') {
+            int fractionStart = ++i;
+            while (i < value.length() && Character.isDigit(value.charAt(i))) i++;
+            if (i == fractionStart) return Kind.TEXT;
+        }
+        if (i < value.length() && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < value.length() && (value.charAt(i) == '-' || value.charAt(i) == '+')) i++;
+            int exponentStart = i;
+            while (i < value.length() && Character.isDigit(value.charAt(i))) i++;
+            if (i == exponentStart) return Kind.TEXT;
+        }
+        return i == value.length() ? Kind.DOUBLE : Kind.TEXT;
+    }
+
+    private static Kind widen(Kind a, Kind b) {
+        if (a == b) return a;
+        if (a == Kind.TEXT || b == Kind.TEXT || a == Kind.BOOLEAN || b == Kind.BOOLEAN) return Kind.TEXT;
+        return a.ordinal() > b.ordinal() ? a : b; // INTEGER < LONG < DOUBLE
+    }
+
+    private void walk(Map<String, Object> map, String prefix, boolean convert) {
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            String key = prefix == null ? entry.getKey() : prefix + "/" + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof String text) {
+                if (convert) entry.setValue(convert(key, text));
+                else observe(key, text);
+            } else if (value instanceof Map<?, ?> nested) {
+                walk((Map<String, Object>) nested, key, convert);
+            } else if (value instanceof List<?> list) {
+                walk((List<Object>) list, key, convert);
+            }
+        }
+    }
+
+    private void walk(List<Object> list, String key, boolean convert) {
+        for (int i = 0; i < list.size(); i++) {
+            Object value = list.get(i);
+            if (value instanceof String text) {
+                if (convert) list.set(i, convert(key, text));
+                else observe(key, text);
+            } else if (value instanceof Map<?, ?> nested) {
+                walk((Map<String, Object>) nested, key, convert);
+            }
+        }
+    }
+}
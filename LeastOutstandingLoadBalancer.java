@@ -0,0 +1,135 @@
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side load balancer over the replicas ({@code baseUrls}) of one API: each request goes to the
+ * endpoint with the fewest requests in flight, ties broken at random.
+ * <p>
+ * The WebClient is built on the first base URL; this filter swaps that prefix for the chosen one, so
+ * callers keep passing relative endpoints. A request counts as in flight until its response headers are
+ * received or it fails. An endpoint whose connection fails (refused, reset, DNS, connect timeout) is
+ * skipped for {@code ejectionTime}, unless every endpoint is ejected. Each endpoint keeps its own
+ * connection pool, so {@code maxConnections} applies per endpoint.
+ */
+@Slf4j
+public class LeastOutstandingLoadBalancer implements ExchangeFilterFunction {
+
+    private final String apiName;
+    private final String primaryBaseUrl;
+    private final Endpoint[] endpoints;
+    private final long ejectionNanos;
+
+    public LeastOutstandingLoadBalancer(String apiName, List<String> baseUrls, Duration ejectionTime) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("No base URL for " + apiName);
+        }
+        this.apiName = apiName;
+        this.primaryBaseUrl = stripTrailingSlash(baseUrls.get(0));
+        this.endpoints = baseUrls.stream()
+                .map(LeastOutstandingLoadBalancer::stripTrailingSlash)
+                .map(Endpoint::new)
+                .toArray(Endpoint[]::new);
+        this.ejectionNanos = ejectionTime.toNanos();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String url = request.url().toString();
+        if (!url.startsWith(primaryBaseUrl)) {
+            return next.exchange(request); // absolute URL to another host, not ours to balance
+        }
+        return Mono.defer(() -> {
+            Endpoint endpoint = choose();
+            ClientRequest routed = ClientRequest.from(request)
+                    .url(URI.create(endpoint.baseUrl + url.substring(primaryBaseUrl.length())))
+                    .build();
+
+            endpoint.outstanding.incrementAndGet();
+            endpoint.requests.increment();
+            return next.exchange(routed)
+                    .doOnSuccess(response -> endpoint.ejectedUntil = 0L)
+                    .doOnError(error -> onError(endpoint, error))
+                    .doFinally(signal -> endpoint.outstanding.decrementAndGet());
+        });
+    }
+
+    /** Per-endpoint counters, in {@code baseUrls} order. */
+    public List<EndpointStats> stats() {
+        long now = System.nanoTime();
+        List<EndpointStats> stats = new ArrayList<>(endpoints.length);
+        for (Endpoint endpoint : endpoints) {
+            stats.add(new EndpointStats(endpoint.baseUrl, endpoint.outstanding.get(), endpoint.requests.sum(),
+                    endpoint.failures.sum(), endpoint.isEjected(now)));
+        }
+        return stats;
+    }
+
+    private Endpoint choose() {
+        long now = System.nanoTime();
+        int start = ThreadLocalRandom.current().nextInt(endpoints.length);
+        Endpoint best = null;
+        Endpoint bestEjected = null;
+        for (int i = 0; i < endpoints.length; i++) {
+            Endpoint candidate = endpoints[(start + i) % endpoints.length];
+            if (candidate.isEjected(now)) {
+                if (bestEjected == null || candidate.outstanding.get() < bestEjected.outstanding.get()) {
+                    bestEjected = candidate;
+                }
+            } else if (best == null || candidate.outstanding.get() < best.outstanding.get()) {
+                best = candidate;
+            }
+        }
+        return best != null ? best : bestEjected;
+    }
+
+    private void onError(Endpoint endpoint, Throwable error) {
+        endpoint.failures.increment();
+        if (error instanceof WebClientRequestException && ejectionNanos > 0) {
+            boolean wasEjected = endpoint.isEjected(System.nanoTime());
+            endpoint.ejectedUntil = System.nanoTime() + ejectionNanos;
+            if (!wasEjected) {
+                log.warn("[{}] Ejecting {} for {} ms: {}", apiName, endpoint.baseUrl,
+                        Duration.ofNanos(ejectionNanos).toMillis(), error.getMessage());
+            }
+        }
+    }
+
+    private static String stripTrailingSlash(String baseUrl) {
+        return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /** {@code outstanding} = requests in flight right now; {@code ejected} = skipped after a connection failure. */
+    public record EndpointStats(String baseUrl, int outstanding, long requests, long failures, boolean ejected) {
+    }
+
+    private static final class Endpoint {
+
+        private final String baseUrl;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private volatile long ejectedUntil; // System.nanoTime(), 0 = not ejected
+
+        private Endpoint(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        private boolean isEjected(long now) {
+            long until = ejectedUntil;
+            return until != 0L && now - until < 0;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+import com.fasterxml.aalto.AsyncByteBufferFeeder;
+import com.fasterxml.aalto.AsyncXMLInputFactory;
+import com.fasterxml.aalto.AsyncXMLStreamReader;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Byte-level input for the XML parsers: the file is memory-mapped and fed, block by block, straight from the
+ * mapping to Aalto's async reader. The document is never decoded into a String or copied through a
+ * {@code Reader}; the parser decodes UTF-8 itself, into its own reused buffers.
+ * <p>
+ * Characters not allowed in XML 1.0, which would make the parser fail, are dropped during the same scan as
+ * {@code XmlSanitizer.sanitize} does on a String: control characters other than tab, CR and LF, UTF-8-encoded
+ * surrogates, U+FFFE and U+FFFF. A clean block is fed as a slice of the mapping; only a block with something
+ * to drop is copied, once, into a reused buffer. Characters above U+FFFF are valid XML and are kept.
+ * <p>
+ * The input must be UTF-8 (or ASCII); UTF-16 files are rejected. Files are mapped one 1 GB segment at a time.
+ */
+final class MappedXmlInput implements AutoCloseable {
+
+    private static final AsyncXMLInputFactory XML_FACTORY = new InputFactoryImpl();
+    private static final int SEGMENT_SHIFT = 30;
+    private static final int LOOKAHEAD = 2; // bytes mapped past a segment to check a 3-byte sequence at its end
+    private static final int BLOCK_SIZE = 256 * 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long size;
+    private final AsyncXMLStreamReader<AsyncByteBufferFeeder> asyncReader = XML_FACTORY.createAsyncForByteBuffer();
+    private ByteBuffer scratch;
+
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private int segmentLength; // bytes owned by the segment, the mapping may hold LOOKAHEAD more
+    private int segmentPos;
+    private int pendingSkip;   // bytes of a dropped character that lie in the next segment
+
+    private MappedXmlInput(File file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    static MappedXmlInput open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            MappedXmlInput input = new MappedXmlInput(file, channel);
+            input.checkEncoding();
+            return input;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Pull reader over the file. It is Aalto's async reader, fed with the next block whenever it runs dry,
+     * so callers see a plain blocking {@link XMLStreamReader}. Text events hold at most one block.
+     */
+    XMLStreamReader reader() {
+        return new StreamReaderDelegate(asyncReader) {
+            @Override
+            public int next() throws XMLStreamException {
+                int event;
+                while ((event = asyncReader.next()) == AsyncXMLStreamReader.EVENT_INCOMPLETE) {
+                    feedNext();
+                }
+                return event;
+            }
+
+            @Override
+            public int nextTag() throws XMLStreamException {
+                int event = next();
+                // The async reader reports START_DOCUMENT as its first event, even without an XML declaration
+                while (event == XMLStreamConstants.START_DOCUMENT || event == XMLStreamConstants.DTD
+                        || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.COMMENT
+                        || event == XMLStreamConstants.PROCESSING_INSTRUCTION
+                        || (event == XMLStreamConstants.CHARACTERS && isWhiteSpace())) {
+                    event = next();
+                }
+                if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+                    throw new XMLStreamException("Expected a start or end tag, got event " + event, getLocation());
+                }
+                return event;
+            }
+
+            @Override
+            public String getElementText() throws XMLStreamException {
+                StringBuilder text = new StringBuilder();
+                int event;
+                while ((event = next()) != XMLStreamConstants.END_ELEMENT) {
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        throw new XMLStreamException("Element text holds markup", getLocation());
+                    }
+                    if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                            || event == XMLStreamConstants.SPACE) {
+                        text.append(getTextCharacters(), getTextStart(), getTextLength());
+                    }
+                }
+                return text.toString();
+            }
+        };
+    }
+
+    /**
+     * Drives a SAX handler from the pull reader, so the existing SAX handlers run on mapped input.
+     * Text is passed straight from the parser's buffer; attributes are a view of the current start tag.
+     */
+    void parse(DefaultHandler handler) throws IOException, SAXException {
+        XMLStreamReader pull = reader();
+        ReaderAttributes attributes = new ReaderAttributes(pull);
+        try {
+            handler.startDocument();
+            while (pull.hasNext()) {
+                switch (pull.next()) {
+                    case XMLStreamConstants.START_ELEMENT ->
+                            handler.startElement(uri(pull), pull.getLocalName(), qName(pull), attributes);
+                    case XMLStreamConstants.END_ELEMENT ->
+                            handler.endElement(uri(pull), pull.getLocalName(), qName(pull));
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                            handler.characters(pull.getTextCharacters(), pull.getTextStart(), pull.getTextLength());
+                    default -> { /* declaration, comments, processing instructions */ }
+                }
+            }
+            handler.endDocument();
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            asyncReader.close();
+        } catch (XMLStreamException ignored) {
+            // nothing left to release
+        }
+        segment = null;
+        channel.close();
+    }
+
+    private void checkEncoding() throws IOException {
+        if (size < 2) return;
+        ByteBuffer head = ByteBuffer.allocate(2);
+        channel.read(head, 0);
+        int b0 = head.get(0) & 0xFF;
+        int b1 = head.get(1) & 0xFF;
+        if ((b0 == 0xFE && b1 == 0xFF) || (b0 == 0xFF && b1 == 0xFE) || (b0 == '<' && b1 == 0) || (b0 == 0 && b1 == '<')) {
+            throw new IOException("UTF-16 input is not supported by the mapped reader: " + file);
+        }
+    }
+
+    /** Feeds the next non-empty block, or the end of input; called whenever the parser runs dry. */
+    private void feedNext() throws XMLStreamException {
+        AsyncByteBufferFeeder feeder = asyncReader.getInputFeeder();
+        while (true) {
+            if (segment == null || segmentPos >= segmentLength) {
+                if (segmentStart + segmentLength >= size) {
+                    feeder.endOfInput();
+                    return;
+                }
+                mapNextSegment();
+            }
+            ByteBuffer block = nextBlock();
+            if (block.hasRemaining()) {
+                feeder.feedInput(block);
+                return;
+            }
+        }
+    }
+
+    private void mapNextSegment() throws XMLStreamException {
+        segmentStart += segmentLength;
+        segmentLength = (int) Math.min(1L << SEGMENT_SHIFT, size - segmentStart);
+        try {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart,
+                    Math.min(segmentLength + LOOKAHEAD, size - segmentStart));
+        } catch (IOException e) {
+            throw new XMLStreamException("Cannot map " + file + " at offset " + segmentStart, e);
+        }
+        segmentPos = Math.min(pendingSkip, segmentLength);
+        pendingSkip = 0;
+    }
+
+    /**
+     * The next block with invalid characters dropped: a slice of the mapping if there are none, else the
+     * valid runs copied into {@link #scratch}. A character dropped across the block end is skipped in the next.
+     */
+    private ByteBuffer nextBlock() {
+        int from = segmentPos;
+        int to = Math.min(from + BLOCK_SIZE, segmentLength);
+        int pos = from;
+        while (pos < to && invalidLength(pos) == 0) {
+            pos++;
+        }
+        if (pos == to) {
+            segmentPos = to;
+            return segment.slice(from, to - from);
+        }
+
+        if (scratch == null) scratch = ByteBuffer.allocate(BLOCK_SIZE);
+        scratch.clear();
+        int runStart = from;
+        while (pos < to) {
+            int invalid = invalidLength(pos);
+            if (invalid == 0) {
+                pos++;
+                continue;
+            }
+            scratch.put(scratch.position(), segment, runStart, pos - runStart);
+            scratch.position(scratch.position() + pos - runStart);
+            pos += invalid;
+            runStart = pos;
+        }
+        if (runStart < to) {
+            scratch.put(scratch.position(), segment, runStart, to - runStart);
+            scratch.position(scratch.position() + to - runStart);
+        }
+        segmentPos = Math.min(pos, segmentLength);
+        pendingSkip = pos - segmentPos;
+        return scratch.flip();
+    }
+
+    /** Byte length of the invalid XML 1.0 character at {@code pos}, 0 if valid (malformed UTF-8 is left to the parser). */
+    private int invalidLength(int pos) {
+        byte b = segment.get(pos);
+        if (b >= 0x20) return 0; // printable ASCII; bytes >= 0x80 are negative
+        if (b >= 0) return b == 0x09 || b == 0x0A || b == 0x0D ? 0 : 1;
+        if (b != (byte) 0xED && b != (byte) 0xEF) return 0;
+        if (pos + 2 >= segment.limit()) return 0;
+        int b1 = segment.get(pos + 1) & 0xFF;
+        int b2 = segment.get(pos + 2) & 0xFF;
+        if (b == (byte) 0xED) {
+            return b1 >= 0xA0 && b1 <= 0xBF ? 3 : 0; // U+D800..U+DFFF
+        }
+        return b1 == 0xBF && (b2 == 0xBE || b2 == 0xBF) ? 3 : 0; // U+FFFE, U+FFFF
+    }
+
+    private static String uri(XMLStreamReader reader) {
+        String uri = reader.getNamespaceURI();
+        return uri == null ? "" : uri;
+    }
+
+    private static String qName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    /** SAX view of the attributes of the reader's current start tag; nothing is copied. */
+    private static final class ReaderAttributes implements Attributes {
+
+        private final XMLStreamReader reader;
+
+        private ReaderAttributes(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int getLength() {
+            return reader.getAttributeCount();
+        }
+
+        @Override
+        public String getURI(int index) {
+            if (index < 0 || index >= getLength()) return null;
+            String uri = reader.getAttributeNamespace(index);
+            return uri == null ? "" : uri;
+        }
+
+        @Override
+        public String getLocalName(int index) {
+            return index < 0 || index >= getLength() ? null : reader.getAttributeLocalName(index);
+        }
+
+        @Override
+        public String getQName(int index) {
+            if (index < 0 || index >= getLength()) return null;
+            String prefix = reader.getAttributePrefix(index);
+            String localName = reader.getAttributeLocalName(index);
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+
+        @Override
+        public String getType(int index) {
+            return index < 0 || index >= getLength() ? null : "CDATA";
+        }
+
+        @Override
+        public String getValue(int index) {
+            return index < 0 || index >= getLength() ? null : reader.getAttributeValue(index);
+        }
+
+        @Override
+        public int getIndex(String uri, String localName) {
+            for (int i = 0; i < getLength(); i++) {
+                if (localName.equals(reader.getAttributeLocalName(i)) && uri.equals(getURI(i))) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public int getIndex(String qName) {
+            for (int i = 0; i < getLength(); i++) {
+                if (qName.equals(getQName(i))) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public String getType(String uri, String localName) {
+            return getType(getIndex(uri, localName));
+        }
+
+        @Override
+        public String getType(String qName) {
+            return getType(getIndex(qName));
+        }
+
+        @Override
+        public String getValue(String uri, String localName) {
+            return getValue(getIndex(uri, localName));
+        }
+
+        @Override
+        public String getValue(String qName) {
+            return getValue(getIndex(qName));
+        }
+    }
+}
@@ -0,0 +1,369 @@
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parallel mode of {@link XmlToMapParser}, for files that are mostly long flat lists of sibling {@code PBOBJECT}s.
+ * <p>
+ * The file is memory-mapped and scanned once, byte by byte, for the items of each {@code PBOBJECTLIST} directly
+ * under the root {@code PBOBJECT}. Runs of consecutive items are then parsed as independent chunks on a
+ * {@link ForkJoinPool}, each by its own {@link XmlToMapParser.PbObjectHandler} inside a synthetic
+ * {@code <PBOBJECT><PBOBJECTLIST>} wrapper, while the calling thread parses the rest of the file (the skeleton,
+ * with those items cut out). Chunk results are appended to the skeleton's lists in document order, so the
+ * result is the same as a sequential parse. Named items, which the handler also puts into the root object, are
+ * merged the same way; if one shares its key with something of the skeleton (a root column, a named list), the
+ * winner depends on which comes last in the document, so such a file is parsed again sequentially.
+ * <p>
+ * The scan is a plain byte loop that only tracks tags, comments, CDATA and quoted attributes, which makes it
+ * several times faster than SAX. Files it cannot split safely are parsed sequentially: below
+ * {@value #MIN_PARALLEL_FILE_SIZE} bytes, UTF-16, a DOCTYPE (entities), or a root that is not a {@code PBOBJECT}.
+ * A list containing anything but {@code PBOBJECT} elements stays in the skeleton.
+ */
+class ParallelPbObjectParser {
+
+    private static final long MIN_PARALLEL_FILE_SIZE = 8L * 1024 * 1024;
+    private static final long MIN_CHUNK_BYTES = 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int SEGMENT_SHIFT = 30; // files are mapped in 1 GB segments
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private static final byte[] CHUNK_PREFIX = "<PBOBJECT><PBOBJECTLIST>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNK_SUFFIX = "</PBOBJECTLIST></PBOBJECT>".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<SAXParser> SAX_PARSERS = ThreadLocal.withInitial(() -> {
+        try {
+            return SAXParserFactory.newInstance().newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("No SAX parser available", e);
+        }
+    });
+
+    private final ForkJoinPool pool;
+
+    ParallelPbObjectParser(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    Map<String, Object> parse(File xmlFile) throws Exception {
+        if (xmlFile.length() < MIN_PARALLEL_FILE_SIZE) {
+            return XmlToMapParser.parseXml(xmlFile);
+        }
+        try (FileChannel channel = FileChannel.open(xmlFile.toPath(), StandardOpenOption.READ)) {
+            MappedFile file = new MappedFile(channel);
+            Layout layout = Layout.scan(file);
+            if (layout == null || layout.lists.isEmpty()) {
+                return XmlToMapParser.parseXml(xmlFile);
+            }
+
+            long itemBytes = layout.lists.stream().mapToLong(ListLayout::span).sum();
+            long chunkBytes = Math.max(MIN_CHUNK_BYTES, itemBytes / ((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+            List<Chunk> chunks = new ArrayList<>();
+            layout.lists.forEach(list -> list.split(chunkBytes, chunks));
+
+            List<ForkJoinTask<XmlToMapParser.PbObjectHandler>> tasks = new ArrayList<>(chunks.size());
+            try {
+                for (Chunk chunk : chunks) {
+                    tasks.add(pool.submit(() -> parse(new SequenceInputStream(Collections.enumeration(List.of(
+                            new ByteArrayInputStream(layout.declaration),
+                            new ByteArrayInputStream(CHUNK_PREFIX),
+                            file.stream(chunk.from(), chunk.to()),
+                            new ByteArrayInputStream(CHUNK_SUFFIX)))))));
+                }
+
+                XmlToMapParser.PbObjectHandler skeleton = parse(layout.skeleton(file));
+                Map<String, Object> root = skeleton.getParsedData();
+                Map<String, Object> namedItems = new HashMap<>(); // chunks in document order: the last one wins
+                for (int i = 0; i < chunks.size(); i++) {
+                    XmlToMapParser.PbObjectHandler chunkHandler = tasks.get(i).join();
+                    skeleton.topLevelLists.get(chunks.get(i).listIndex()).addAll(chunkHandler.topLevelLists.get(0));
+                    // PbObjectHandler also puts named list items into the root object
+                    namedItems.putAll(chunkHandler.getParsedData());
+                }
+                if (!Collections.disjoint(root.keySet(), namedItems.keySet())) {
+                    return XmlToMapParser.parseXml(xmlFile);
+                }
+                root.putAll(namedItems);
+                return root;
+            } finally {
+                tasks.forEach(task -> task.cancel(false));
+            }
+        }
+    }
+
+    private static XmlToMapParser.PbObjectHandler parse(InputStream in) throws Exception {
+        SAXParser saxParser = SAX_PARSERS.get();
+        XmlToMapParser.PbObjectHandler handler = new XmlToMapParser.PbObjectHandler();
+        try (in) {
+            saxParser.parse(new InputSource(in), handler);
+        } finally {
+            saxParser.reset();
+        }
+        return handler;
+    }
+
+    /** Items {@code [from, to)} of the list at {@code listIndex} among the root's PBOBJECTLISTs. */
+    private record Chunk(int listIndex, long from, long to) {
+    }
+
+    /** Where the top-level list items are, and the XML declaration to repeat in front of each chunk. */
+    private static final class Layout {
+
+        private final byte[] declaration;
+        private final List<ListLayout> lists = new ArrayList<>();
+        private final long size;
+
+        private Layout(byte[] declaration, long size) {
+            this.declaration = declaration;
+            this.size = size;
+        }
+
+        /** Returns null if the file cannot be split safely. */
+        static Layout scan(MappedFile file) {
+            long size = file.size;
+            long pos = 0;
+            if (size >= 2 && ((file.byteAt(0) == 0xFE && file.byteAt(1) == 0xFF)
+                    || (file.byteAt(0) == 0xFF && file.byteAt(1) == 0xFE))) {
+                return null; // UTF-16: not byte-scannable
+            }
+            if (size >= 3 && file.byteAt(0) == 0xEF && file.byteAt(1) == 0xBB && file.byteAt(2) == 0xBF) {
+                pos = 3;
+            }
+            byte[] declaration = new byte[0];
+            if (file.startsWith(pos, "<?xml")) {
+                long end = file.indexOf(pos, "?>");
+                if (end < 0) return null;
+                declaration = file.bytes(pos, end + 2);
+                pos = end + 2;
+            }
+
+            Layout layout = new Layout(declaration, size);
+            int depth = 0;
+            int listCount = 0;
+            ListLayout currentList = null;
+            long itemStart = -1;
+
+            while (pos < size) {
+                if (file.byteAt(pos) != '<') {
+                    pos++;
+                    continue;
+                }
+                int next = pos + 1 < size ? file.byteAt(pos + 1) : -1;
+
+                if (next == '!') {
+                    long end;
+                    if (file.startsWith(pos, "<!--")) {
+                        end = file.indexOf(pos + 4, "-->");
+                    } else if (file.startsWith(pos, "<![CDATA[")) {
+                        end = file.indexOf(pos + 9, "]]>");
+                    } else {
+                        return null; // DOCTYPE: entities may be declared there
+                    }
+                    if (end < 0) return null;
+                    pos = end + 3;
+
+                } else if (next == '?') {
+                    long end = file.indexOf(pos + 2, "?>");
+                    if (end < 0) return null;
+                    pos = end + 2;
+
+                } else if (next == '/') {
+                    long end = file.indexOf(pos + 2, ">");
+                    if (end < 0) return null;
+                    depth--;
+                    if (depth == 2 && itemStart >= 0) {
+                        currentList.add(itemStart, end + 1);
+                        itemStart = -1;
+                    } else if (depth == 1 && currentList != null) {
+                        if (currentList.splittable && currentList.count > 0) layout.lists.add(currentList);
+                        currentList = null;
+                    }
+                    pos = end + 1;
+
+                } else {
+                    long end = file.tagEnd(pos);
+                    if (end < 0) return null;
+                    boolean selfClosing = file.byteAt(end - 1) == '/';
+                    boolean isObject = file.nameEquals(pos + 1, "PBOBJECT");
+                    boolean isList = !isObject && file.nameEquals(pos + 1, "PBOBJECTLIST");
+
+                    if (depth == 0 && !isObject) {
+                        return null;
+                    } else if (depth == 1 && isList) {
+                        currentList = selfClosing ? null : new ListLayout(listCount);
+                        listCount++;
+                    } else if (depth == 2 && currentList != null) {
+                        if (!isObject) {
+                            currentList.splittable = false;
+                        } else if (selfClosing) {
+                            currentList.add(pos, end + 1);
+                        } else {
+                            itemStart = pos;
+                        }
+                    }
+                    if (!selfClosing) depth++;
+                    pos = end + 1;
+                }
+            }
+            return layout;
+        }
+
+        /** The file with the items of every split list cut out. */
+        InputStream skeleton(MappedFile file) {
+            List<InputStream> parts = new ArrayList<>();
+            long from = 0;
+            for (ListLayout list : lists) {
+                parts.add(file.stream(from, list.starts[0]));
+                from = list.ends[list.count - 1];
+            }
+            parts.add(file.stream(from, size));
+            return new SequenceInputStream(Collections.enumeration(parts));
+        }
+    }
+
+    /** Byte ranges of the PBOBJECT items of one top-level list. */
+    private static final class ListLayout {
+
+        private final int index;
+        private boolean splittable = true;
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private int count;
+
+        private ListLayout(int index) {
+            this.index = index;
+        }
+
+        void add(long start, long end) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+
+        long span() {
+            return ends[count - 1] - starts[0];
+        }
+
+        /** Consecutive items grouped into chunks of about {@code chunkBytes}. */
+        void split(long chunkBytes, List<Chunk> chunks) {
+            int first = 0;
+            while (first < count) {
+                int last = first;
+                while (last + 1 < count && ends[last + 1] - starts[first] <= chunkBytes) {
+                    last++;
+                }
+                chunks.add(new Chunk(index, starts[first], ends[last]));
+                first = last + 1;
+            }
+        }
+    }
+
+    /** Read-only mapping of a whole file, in segments since one buffer cannot exceed 2 GB. */
+    private static final class MappedFile {
+
+        private final long size;
+        private final MappedByteBuffer[] segments;
+
+        private MappedFile(FileChannel channel) throws IOException {
+            this.size = channel.size();
+            this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long offset = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(1L << SEGMENT_SHIFT, size - offset));
+            }
+        }
+
+        int byteAt(long pos) {
+            return segments[(int) (pos >>> SEGMENT_SHIFT)].get((int) (pos & SEGMENT_MASK)) & 0xFF;
+        }
+
+        boolean startsWith(long pos, String ascii) {
+            if (pos + ascii.length() > size) return false;
+            for (int i = 0; i < ascii.length(); i++) {
+                if (byteAt(pos + i) != ascii.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        /** True if the tag name starting at {@code pos} is exactly {@code name}. */
+        boolean nameEquals(long pos, String name) {
+            if (!startsWith(pos, name)) return false;
+            long after = pos + name.length();
+            if (after >= size) return false;
+            int b = byteAt(after);
+            return b == '>' || b == '/' || b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+
+        long indexOf(long from, String ascii) {
+            int first = ascii.charAt(0);
+            for (long pos = from; pos + ascii.length() <= size; pos++) {
+                if (byteAt(pos) == first && startsWith(pos, ascii)) return pos;
+            }
+            return -1;
+        }
+
+        /** Position of the {@code >} closing the start tag at {@code pos}, skipping quoted attribute values. */
+        long tagEnd(long pos) {
+            int quote = 0;
+            for (long p = pos + 1; p < size; p++) {
+                int b = byteAt(p);
+                if (quote != 0) {
+                    if (b == quote) quote = 0;
+                } else if (b == '"' || b == '\'') {
+                    quote = b;
+                } else if (b == '>') {
+                    return p;
+                }
+            }
+            return -1;
+        }
+
+        byte[] bytes(long from, long to) {
+            byte[] bytes = new byte[(int) (to - from)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) byteAt(from + i);
+            }
+            return bytes;
+        }
+
+        InputStream stream(long from, long to) {
+            return new InputStream() {
+                private long pos = from;
+
+                @Override
+                public int read() {
+                    return pos < to ? byteAt(pos++) : -1;
+                }
+
+                @Override
+                public int read(byte[] target, int offset, int length) {
+                    if (pos >= to) return -1;
+                    int segment = (int) (pos >>> SEGMENT_SHIFT);
+                    int index = (int) (pos & SEGMENT_MASK);
+                    int n = (int) Math.min(length, Math.min(to - pos, segments[segment].limit() - index));
+                    segments[segment].get(index, target, offset, n);
+                    pos += n;
+                    return n;
+                }
+            };
+        }
+    }
+}
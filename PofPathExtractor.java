@@ -0,0 +1,156 @@
+import com.tangosol.io.pof.ConfigurablePofContext;
+import com.tangosol.io.pof.PofContext;
+import com.tangosol.io.pof.annotation.PortableProperty;
+import com.tangosol.io.pof.reflect.SimplePofPath;
+import com.tangosol.util.ValueExtractor;
+import com.tangosol.util.extractor.PofExtractor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * POF counterpart of {@link GenericValueExtractor}: resolves a dotted path such as {@code base.asset.reference[0]}
+ * to POF indexes once, on the client, and returns a {@link PofExtractor} over them. Storage nodes then read the
+ * value straight from the serialized entry, navigating the POF stream, without deserializing the object.
+ * <p>
+ * Each step must go through a user type of the POF configuration ({@code pof-config.xml}), and its POF index
+ * must be stated, never guessed: either the field is annotated {@code @PortableProperty(n)}, or the caller
+ * registers the indexes its {@code writeExternal} uses with {@link #index}. A field with neither, or with an
+ * auto-indexed {@code @PortableProperty}, is rejected, since a wrong index would silently match another property.
+ * {@code [n]} selects the n-th element of a collection or array field. The cache must use the POF serializer.
+ * <pre>
+ * PofPathExtractor.forConfig("pof-config.xml").index(Person.class, Map.of("name", 0, "age", 1));
+ * </pre>
+ */
+public final class PofPathExtractor {
+
+    private static final Map<String, PofPathExtractor> BY_CONFIG = new ConcurrentHashMap<>();
+
+    private final PofContext pofContext;
+
+    // Class -> field name -> POF index and declared type; registered, or read from the annotations on first use
+    private final Map<Class<?>, Map<String, PofField>> fields = new ConcurrentHashMap<>();
+
+    public PofPathExtractor(PofContext pofContext) {
+        this.pofContext = pofContext;
+    }
+
+    /** Shared instance for a POF configuration resource, e.g. {@code pof-config.xml}. */
+    public static PofPathExtractor forConfig(String pofConfig) {
+        return BY_CONFIG.computeIfAbsent(pofConfig, config -> new PofPathExtractor(new ConfigurablePofContext(config)));
+    }
+
+    /**
+     * Registers the POF indexes of {@code type}'s fields, as its {@code writeExternal} writes them; they replace
+     * any {@code @PortableProperty} indexes. Fields left out cannot be used in a path.
+     */
+    public PofPathExtractor index(Class<?> type, Map<String, Integer> fieldIndexes) {
+        Map<String, PofField> byName = new HashMap<>();
+        fieldIndexes.forEach((name, index) -> {
+            if (index == null || index < 0) {
+                throw new IllegalArgumentException("Invalid POF index " + index + " for " + type.getName() + "." + name);
+            }
+            Field field = serializedFields(type).get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("No field '" + name + "' in " + type.getName());
+            }
+            byName.put(name, new PofField(index, field.getGenericType()));
+        });
+        fields.put(type, Map.copyOf(byName));
+        return this;
+    }
+
+    /** Extractor reading {@code fieldPath} of a {@code rootType} entry from its serialized form. */
+    public <T, E> ValueExtractor<T, E> extractor(Class<?> rootType, String fieldPath) {
+        return new PofExtractor<>(null, new SimplePofPath(resolve(rootType, fieldPath)));
+    }
+
+    /** POF indexes of {@code fieldPath} from {@code rootType}, one per field plus one per {@code [n]}. */
+    public int[] resolve(Class<?> rootType, String fieldPath) {
+        List<Integer> indexes = new ArrayList<>();
+        Type type = rootType;
+        for (String part : fieldPath.split("\\.")) {
+            String fieldName = part;
+            int index = -1;
+            int start = part.indexOf('[');
+            if (start >= 0 && part.endsWith("]")) {
+                fieldName = part.substring(0, start);
+                index = Integer.parseInt(part.substring(start + 1, part.length() - 1));
+            }
+
+            Class<?> owner = rawClass(type);
+            if (owner == null || !pofContext.isUserType(owner)) {
+                throw new IllegalArgumentException("Cannot resolve '" + part + "' of " + fieldPath + ": "
+                        + type.getTypeName() + " is not a POF user type");
+            }
+            PofField field = fields.computeIfAbsent(owner, PofPathExtractor::annotatedFields).get(fieldName);
+            if (field == null) {
+                throw new IllegalArgumentException("No POF index for field '" + fieldName + "' of " + owner.getName()
+                        + " (path " + fieldPath + "): annotate it @PortableProperty(n) or register it with index()");
+            }
+            indexes.add(field.index());
+            type = field.type();
+
+            if (index >= 0) {
+                indexes.add(index);
+                type = elementType(type);
+            }
+        }
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Fields with an explicit {@code @PortableProperty(n)} index, superclass fields included. */
+    private static Map<String, PofField> annotatedFields(Class<?> type) {
+        Map<String, PofField> byName = new HashMap<>();
+        serializedFields(type).forEach((name, field) -> {
+            PortableProperty property = field.getAnnotation(PortableProperty.class);
+            if (property != null && property.value() >= 0) {
+                byName.put(name, new PofField(property.value(), field.getGenericType()));
+            }
+        });
+        return Map.copyOf(byName);
+    }
+
+    /** Non-static, non-transient fields of {@code type} and its superclasses, by name; the subclass wins on a clash. */
+    private static Map<String, Field> serializedFields(Class<?> type) {
+        Map<String, Field> byName = new HashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+                byName.putIfAbsent(field.getName(), field);
+            }
+        }
+        return byName;
+    }
+
+    private static Type elementType(Type type) {
+        if (type instanceof ParameterizedType parameterized && parameterized.getActualTypeArguments().length == 1) {
+            return parameterized.getActualTypeArguments()[0]; // List<X>, Set<X>, ...
+        }
+        if (type instanceof GenericArrayType array) {
+            return array.getGenericComponentType();
+        }
+        if (type instanceof Class<?> c && c.isArray()) {
+            return c.getComponentType();
+        }
+        return Object.class;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c) return c;
+        if (type instanceof ParameterizedType parameterized) return (Class<?>) parameterized.getRawType();
+        return null;
+    }
+
+    private record PofField(int index, Type type) {
+    }
+}
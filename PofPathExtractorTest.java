@@ -0,0 +1,86 @@
+import com.example.model.Person;
+import com.tangosol.io.pof.PofAnnotationSerializer;
+import com.tangosol.io.pof.PortableObjectSerializer;
+import com.tangosol.io.pof.SimplePofContext;
+import com.tangosol.io.pof.annotation.Portable;
+import com.tangosol.io.pof.annotation.PortableProperty;
+import com.tangosol.io.pof.reflect.PofValue;
+import com.tangosol.io.pof.reflect.PofValueParser;
+import com.tangosol.io.pof.reflect.SimplePofPath;
+import com.tangosol.util.Binary;
+import com.tangosol.util.ExternalizableHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PofPathExtractorTest {
+
+    private SimplePofContext pofContext;
+
+    @BeforeEach
+    void setUp() {
+        // Same type ids as pof-config.xml
+        pofContext = new SimplePofContext();
+        pofContext.registerUserType(1001, Person.class, new PortableObjectSerializer(1001));
+        pofContext.registerUserType(1010, Annotated.class, new PofAnnotationSerializer<>(1010, Annotated.class));
+        pofContext.registerUserType(1011, AutoIndexed.class, new PofAnnotationSerializer<>(1011, AutoIndexed.class, true));
+    }
+
+    @Test
+    void testResolve_registeredIndexes_readValuesFromSerializedPerson() {
+        PofPathExtractor extractor = new PofPathExtractor(pofContext)
+                .index(Person.class, Map.of("name", 0, "age", 1)); // as Person.writeExternal writes them
+
+        Binary serialized = ExternalizableHelper.toBinary(new Person("Alice", 30), pofContext);
+        PofValue root = PofValueParser.parse(serialized, pofContext);
+
+        assertEquals("Alice", new SimplePofPath(extractor.resolve(Person.class, "name")).navigate(root).getValue());
+        assertEquals(30, new SimplePofPath(extractor.resolve(Person.class, "age")).navigate(root).getValue());
+    }
+
+    @Test
+    void testResolve_unannotatedWithoutRegisteredIndexes_rejected() {
+        PofPathExtractor extractor = new PofPathExtractor(pofContext);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> extractor.resolve(Person.class, "age"));
+        assertTrue(e.getMessage().contains("No POF index for field 'age'"));
+    }
+
+    @Test
+    void testResolve_explicitPortableProperty_usesAnnotatedIndex() {
+        PofPathExtractor extractor = new PofPathExtractor(pofContext);
+
+        assertArrayEquals(new int[]{7}, extractor.resolve(Annotated.class, "code"));
+    }
+
+    @Test
+    void testResolve_autoIndexedPortableProperty_rejected() {
+        PofPathExtractor extractor = new PofPathExtractor(pofContext);
+
+        assertThrows(IllegalArgumentException.class, () -> extractor.resolve(AutoIndexed.class, "code"));
+    }
+
+    @Test
+    void testIndex_unknownFieldOrNegativeIndex_rejected() {
+        PofPathExtractor extractor = new PofPathExtractor(pofContext);
+
+        assertThrows(IllegalArgumentException.class, () -> extractor.index(Person.class, Map.of("nmae", 0)));
+        assertThrows(IllegalArgumentException.class, () -> extractor.index(Person.class, Map.of("name", -1)));
+    }
+
+    @Portable
+    public static class Annotated {
+        @PortableProperty(7)
+        private String code;
+    }
+
+    @Portable
+    public static class AutoIndexed {
+        @PortableProperty
+        private String code;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.executor;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * Turns a raw response body, as it arrives chunk by chunk, into records.
+ * <p>
+ * Implementations must emit each record as soon as its last byte has been read, keep at most
+ * one record in memory, and release every {@link DataBuffer} they consume.
+ */
+public interface RecordStreamDecoder {
+
+    Flux<Map<String, Object>> decode(Flux<DataBuffer> body);
+}
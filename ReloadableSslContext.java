@@ -0,0 +1,59 @@
+package com.example.security;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.ApplicationProtocolNegotiator;
+import io.netty.handler.ssl.SslContext;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
+import java.util.List;
+
+/**
+ * {@link SslContext} whose underlying context can be swapped at runtime.
+ * <p>
+ * The HttpClient keeps this instance for its whole life; after {@link #update}, new connections
+ * handshake with the new certificates while open connections keep the engine they were created with.
+ */
+final class ReloadableSslContext extends SslContext {
+
+    private volatile SslContext delegate;
+
+    ReloadableSslContext(SslContext initial) {
+        this.delegate = initial;
+    }
+
+    void update(SslContext next) {
+        this.delegate = next;
+    }
+
+    @Override
+    public boolean isClient() {
+        return delegate.isClient();
+    }
+
+    @Override
+    public List<String> cipherSuites() {
+        return delegate.cipherSuites();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public ApplicationProtocolNegotiator applicationProtocolNegotiator() {
+        return delegate.applicationProtocolNegotiator();
+    }
+
+    @Override
+    public SSLEngine newEngine(ByteBufAllocator alloc) {
+        return delegate.newEngine(alloc);
+    }
+
+    @Override
+    public SSLEngine newEngine(ByteBufAllocator alloc, String peerHost, int peerPort) {
+        return delegate.newEngine(alloc, peerHost, peerPort);
+    }
+
+    @Override
+    public SSLSessionContext sessionContext() {
+        return delegate.sessionContext();
+    }
+}
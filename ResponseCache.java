@@ -0,0 +1,212 @@
+package com.example.cache;
+
+import com.example.Status;
+import com.example.model.ApiConfig;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Response cache for {@code RestApiClient.execute}, one Caffeine (W-TinyLFU) cache per API.
+ * <p>
+ * Only GET calls without body whose endpoint has a TTL in {@code responseCacheTtlSec} are cached,
+ * and only 2xx responses are stored. Within the TTL an entry is served as is; during the following
+ * {@code responseCacheStaleSec} it is still served but a background call refreshes it
+ * (stale-while-revalidate). Concurrent misses on the same key share a single upstream call.
+ * <p>
+ * Every served response carries a {@value #CACHE_STATUS_HEADER} header set to
+ * {@link Status#CACHE_HIT} or {@link Status#CACHE_MISS}. The name is not the {@code X-Cache-Status} that
+ * nginx and CDNs send, so an upstream's own cache status is passed through untouched.
+ * <p>
+ * A hit hands out the cached body itself, shared by every caller of that key, not a copy: response types of
+ * cacheable endpoints must be immutable, or treated as read-only by their callers.
+ */
+@Slf4j
+public class ResponseCache {
+
+    public static final String CACHE_STATUS_HEADER = "X-Client-Cache-Status";
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final Map<String, ApiResponseCache> cachesByApi = new ConcurrentHashMap<>();
+
+    /** True if this call may be answered from the cache. */
+    public boolean isCacheable(ApiConfig apiConfig, HttpMethod method, String endpoint, Object body) {
+        return HttpMethod.GET.equals(method) && body == null && ttlSec(apiConfig, endpoint) > 0;
+    }
+
+    /** Cached response, or the one {@code loader} fetches; the body is shared, see the class comment. */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<ResponseEntity<T>> get(ApiConfig apiConfig,
+                                           String endpoint,
+                                           MultiValueMap<String, String> params,
+                                           Class<T> responseType,
+                                           Supplier<Mono<ResponseEntity<T>>> loader) {
+        return Mono.defer(() -> {
+            ApiResponseCache cache = cacheFor(apiConfig);
+            ResponseKey key = ResponseKey.of(endpoint, params, responseType);
+            CachedResponse cached = cache.entries.getIfPresent(key);
+            long now = System.nanoTime();
+
+            if (cached != null && now < cached.staleAtNanos()) {
+                cache.count(Status.CACHE_HIT);
+                return Mono.just(tag((ResponseEntity<T>) cached.response(), Status.CACHE_HIT));
+            }
+            if (cached != null) {
+                // Stale but still within the revalidation window: serve it, refresh in the background
+                cache.staleHits.increment();
+                cache.count(Status.CACHE_HIT);
+                load(cache, key, apiConfig, endpoint, loader)
+                        .subscribe(fresh -> { }, e -> log.warn("[{}] Revalidation of {} failed, keeping stale entry: {}",
+                                apiConfig.getName(), endpoint, e.getMessage()));
+                return Mono.just(tag((ResponseEntity<T>) cached.response(), Status.CACHE_HIT));
+            }
+
+            cache.count(Status.CACHE_MISS);
+            return load(cache, key, apiConfig, endpoint, loader)
+                    .map(response -> tag((ResponseEntity<T>) response, Status.CACHE_MISS));
+        });
+    }
+
+    /** Hit/miss counts of one API, keyed by {@link Status#CACHE_HIT} and {@link Status#CACHE_MISS}. */
+    public Map<Status, Long> getStatusCounts(String apiName) {
+        ApiResponseCache cache = cachesByApi.get(apiName);
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        counts.put(Status.CACHE_HIT, cache == null ? 0L : cache.counters.get(Status.CACHE_HIT).sum());
+        counts.put(Status.CACHE_MISS, cache == null ? 0L : cache.counters.get(Status.CACHE_MISS).sum());
+        return counts;
+    }
+
+    /** Hits served from a stale entry while it was being revalidated (included in the CACHE_HIT count). */
+    public long getStaleHits(String apiName) {
+        ApiResponseCache cache = cachesByApi.get(apiName);
+        return cache == null ? 0L : cache.staleHits.sum();
+    }
+
+    /**
+     * Cache status of a response returned by {@link #get}; {@link Status#UNKNOWN} if it did not go through the
+     * cache or the header holds anything else.
+     */
+    public static Status statusOf(ResponseEntity<?> response) {
+        String value = response.getHeaders().getFirst(CACHE_STATUS_HEADER);
+        if (Status.CACHE_HIT.name().equals(value)) return Status.CACHE_HIT;
+        if (Status.CACHE_MISS.name().equals(value)) return Status.CACHE_MISS;
+        return Status.UNKNOWN;
+    }
+
+    public void invalidate(String apiName) {
+        ApiResponseCache cache = cachesByApi.get(apiName);
+        if (cache != null) cache.entries.invalidateAll();
+    }
+
+    private Mono<ResponseEntity<?>> load(ApiResponseCache cache, ResponseKey key, ApiConfig apiConfig, String endpoint,
+                                         Supplier<? extends Mono<? extends ResponseEntity<?>>> loader) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSec(apiConfig, endpoint));
+        long staleNanos = TimeUnit.SECONDS.toNanos(Optional.ofNullable(apiConfig.getResponseCacheStaleSec()).orElse(0));
+
+        return cache.inFlight.computeIfAbsent(key, k -> Mono.<ResponseEntity<?>>from(loader.get())
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        long now = System.nanoTime();
+                        cache.entries.put(k, new CachedResponse(response, now + ttlNanos, now + ttlNanos + staleNanos));
+                    }
+                })
+                .doFinally(signal -> cache.inFlight.remove(k))
+                .cache());
+    }
+
+    private ApiResponseCache cacheFor(ApiConfig apiConfig) {
+        return cachesByApi.computeIfAbsent(apiConfig.getName(), name -> new ApiResponseCache(
+                Optional.ofNullable(apiConfig.getResponseCacheMaxEntries()).orElse(DEFAULT_MAX_ENTRIES)));
+    }
+
+    private static int ttlSec(ApiConfig apiConfig, String endpoint) {
+        Map<String, Integer> ttls = apiConfig.getResponseCacheTtlSec();
+        if (ttls == null || endpoint == null) return 0;
+        return Optional.ofNullable(ttls.get(endpoint)).orElse(0);
+    }
+
+    private static <T> ResponseEntity<T> tag(ResponseEntity<T> response, Status status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.set(CACHE_STATUS_HEADER, status.name());
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    /** Per-API state: bounded entries, in-flight loads and counters. */
+    private static final class ApiResponseCache {
+
+        private final com.github.benmanes.caffeine.cache.Cache<ResponseKey, CachedResponse> entries;
+        private final Map<ResponseKey, Mono<ResponseEntity<?>>> inFlight = new ConcurrentHashMap<>();
+        private final Map<Status, LongAdder> counters = new EnumMap<>(Status.class);
+        private final LongAdder staleHits = new LongAdder();
+
+        private ApiResponseCache(int maxEntries) {
+            this.entries = Caffeine.newBuilder()
+                    .maximumSize(maxEntries) // W-TinyLFU admission + eviction
+                    .expireAfter(new StaleWindowExpiry())
+                    .build();
+            counters.put(Status.CACHE_HIT, new LongAdder());
+            counters.put(Status.CACHE_MISS, new LongAdder());
+        }
+
+        void count(Status status) {
+            counters.get(status).increment();
+        }
+    }
+
+    /** Entries are dropped once the stale window is over; until then they are served. */
+    private static final class StaleWindowExpiry implements Expiry<ResponseKey, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(ResponseKey key, CachedResponse value, long currentTime) {
+            return Math.max(0L, value.expiresAtNanos() - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(ResponseKey key, CachedResponse value, long currentTime, long currentDuration) {
+            return Math.max(0L, value.expiresAtNanos() - currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ResponseKey key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /** {@code staleAtNanos}: end of the TTL, {@code expiresAtNanos}: end of the stale window (System.nanoTime based). */
+    private record CachedResponse(ResponseEntity<?> response, long staleAtNanos, long expiresAtNanos) {
+    }
+
+    /** Endpoint + params (order-insensitive) + response type. */
+    private record ResponseKey(String endpoint, Map<String, List<String>> params, Class<?> responseType) {
+
+        static ResponseKey of(String endpoint, MultiValueMap<String, String> params, Class<?> responseType) {
+            Map<String, List<String>> sorted = new TreeMap<>();
+            if (params != null) {
+                params.forEach((name, values) -> sorted.put(name, values == null ? List.of() : List.copyOf(values)));
+            }
+            return new ResponseKey(endpoint, sorted, responseType);
+        }
+    }
+}
+
+
+<dependencies>
+    <dependency>
+        <groupId>com.github.ben-manes.caffeine</groupId>
+        <artifactId>caffeine</artifactId>
+        <version>3.1.8</version>
+    </dependency>
+</dependencies>
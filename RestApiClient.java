@@ -0,0 +1,187 @@
+package com.example.executor;
+
+import com.example.cache.Cache;
+import com.example.cache.ResponseCache;
+import com.example.factory.Factory;
+import com.example.model.ApiConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executes REST/SOAP calls described by an {@link ApiConfig}.
+ * <p>
+ * WebClients and auth headers are built once per API by their {@link Factory} and kept in a {@link Cache};
+ * both are looked up by name, {@link #WEB_CLIENT_CACHE} / {@link #WEB_CLIENT_FACTORY} and
+ * {@link #AUTH_HEADER_CACHE} / {@link #AUTH_HEADER_FACTORY}. Responses of cacheable GET
+ * endpoints can additionally be served from an optional {@link ResponseCache}. APIs configured with a circuit
+ * breaker and/or bulkhead have their network calls go through an {@link ApiGuard}.
+ */
+@Slf4j
+public class RestApiClient {
+
+    public static final String WEB_CLIENT_CACHE = "WebClientCache";
+    public static final String AUTH_HEADER_CACHE = "AuthHeaderCache";
+    public static final String WEB_CLIENT_FACTORY = "WebClientFactory";
+    public static final String AUTH_HEADER_FACTORY = "AuthHeaderFactory";
+    public static final String SOAP_ACTION_HEADER = "SOAPAction";
+
+    private static final MediaType SOAP_11_CONTENT_TYPE = new MediaType(MediaType.TEXT_XML, StandardCharsets.UTF_8);
+
+    private final Map<String, Cache<?, ApiConfig>> caches;
+    private final Map<String, Factory<?, ApiConfig>> factories;
+    private final ResponseCache responseCache; // null = no response caching
+    private final Map<String, Optional<ApiGuard>> guards = new ConcurrentHashMap<>();
+
+    public RestApiClient(Map<String, Cache<?, ApiConfig>> caches, Map<String, Factory<?, ApiConfig>> factories) {
+        this(caches, factories, null);
+    }
+
+    public RestApiClient(Map<String, Cache<?, ApiConfig>> caches,
+                         Map<String, Factory<?, ApiConfig>> factories,
+                         ResponseCache responseCache) {
+        this.caches = Objects.requireNonNull(caches, "caches");
+        this.factories = Objects.requireNonNull(factories, "factories");
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Buffered execution: the whole body is aggregated (up to {@code maxInMemorySize}) and decoded
+     * into {@code responseType}. Served from the {@link ResponseCache} when the endpoint is cacheable.
+     */
+    public <T> Mono<ResponseEntity<T>> execute(ApiConfig apiConfig,
+                                               HttpMethod method,
+                                               String endpoint,
+                                               Object body,
+                                               Class<T> responseType,
+                                               HttpHeaders headers,
+                                               MultiValueMap<String, String> params) {
+        if (responseCache != null && headers == null && responseCache.isCacheable(apiConfig, method, endpoint, body)) {
+            return responseCache.get(apiConfig, endpoint, params, responseType,
+                    () -> call(apiConfig, method, endpoint, null, responseType, null, params));
+        }
+        return call(apiConfig, method, endpoint, body, responseType, headers, params);
+    }
+
+    private <T> Mono<ResponseEntity<T>> call(ApiConfig apiConfig,
+                                             HttpMethod method,
+                                             String endpoint,
+                                             Object body,
+                                             Class<T> responseType,
+                                             HttpHeaders headers,
+                                             MultiValueMap<String, String> params) {
+        Mono<ResponseEntity<T>> call = prepare(apiConfig, method, endpoint, body, headers, params)
+                .retrieve()
+                .toEntity(responseType);
+        return guardFor(apiConfig).map(guard -> guard.protect(call)).orElse(call);
+    }
+
+    /** Circuit breaker / bulkhead state of an API, empty if it has none configured or was never called. */
+    public Optional<ApiGuard.GuardMetrics> getGuardMetrics(String apiName) {
+        return guards.getOrDefault(apiName, Optional.empty()).map(ApiGuard::metrics);
+    }
+
+    /**
+     * Streaming execution: the body is handed over chunk by chunk as it comes off the socket,
+     * never aggregated, so {@code maxInMemorySize} does not apply.
+     * <p>
+     * The caller owns the buffers and must release them ({@code DataBufferUtils.release}),
+     * which every {@link RecordStreamDecoder} does.
+     */
+    public Flux<DataBuffer> executeStream(ApiConfig apiConfig,
+                                          HttpMethod method,
+                                          String endpoint,
+                                          Object body,
+                                          HttpHeaders headers,
+                                          MultiValueMap<String, String> params) {
+        return prepare(apiConfig, method, endpoint, body, headers, params)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+    }
+
+    /**
+     * Streaming execution decoded into records, e.g. {@code new JsonRecordStreamDecoder("dataframe")}
+     * or {@code new XmlRecordStreamDecoder("PBOBJECT")}. Each record is emitted as soon as it is complete;
+     * memory stays bounded by one record plus one network chunk.
+     */
+    public Flux<Map<String, Object>> executeStream(ApiConfig apiConfig,
+                                                   HttpMethod method,
+                                                   String endpoint,
+                                                   Object body,
+                                                   HttpHeaders headers,
+                                                   MultiValueMap<String, String> params,
+                                                   RecordStreamDecoder decoder) {
+        return decoder.decode(executeStream(apiConfig, method, endpoint, body, headers, params))
+                .doOnError(e -> log.error("[{}] Streaming {} {} failed: {}",
+                        apiConfig.getName(), method, endpoint, e.getMessage()));
+    }
+
+    /**
+     * SOAP 1.1 fast path, replacing the JAX-WS stubs for large responses: posts {@code envelope} to
+     * {@code endpoint} and streams the response through {@code decoder}, typically a
+     * {@code new SoapRecordStreamDecoder("PBOBJECT")} for services that return escaped XML in {@code <return>}.
+     * No object graph is built, and neither the envelope nor the embedded document is held in memory.
+     */
+    public Flux<Map<String, Object>> executeSoap(ApiConfig apiConfig,
+                                                 String endpoint,
+                                                 String soapAction,
+                                                 String envelope,
+                                                 RecordStreamDecoder decoder) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(SOAP_11_CONTENT_TYPE);
+        headers.setAccept(List.of(MediaType.TEXT_XML));
+        headers.set(SOAP_ACTION_HEADER, "\"" + (soapAction != null ? soapAction : "") + "\"");
+        return executeStream(apiConfig, HttpMethod.POST, endpoint, envelope, headers, null, decoder);
+    }
+
+    private WebClient.RequestHeadersSpec<?> prepare(ApiConfig apiConfig,
+                                                    HttpMethod method,
+                                                    String endpoint,
+                                                    Object body,
+                                                    HttpHeaders headers,
+                                                    MultiValueMap<String, String> params) {
+        WebClient webClient = getOrCreate(WEB_CLIENT_CACHE, WEB_CLIENT_FACTORY, apiConfig);
+        Map<String, String> authHeaders = getOrCreate(AUTH_HEADER_CACHE, AUTH_HEADER_FACTORY, apiConfig);
+        MultiValueMap<String, String> queryParams = params != null ? params : new LinkedMultiValueMap<>();
+
+        WebClient.RequestBodySpec spec = webClient.method(method)
+                .uri(uriBuilder -> uriBuilder.path(endpoint).queryParams(queryParams).build())
+                .headers(httpHeaders -> {
+                    if (authHeaders != null) authHeaders.forEach(httpHeaders::set);
+                    if (headers != null) httpHeaders.addAll(headers);
+                });
+
+        return body != null ? spec.bodyValue(body) : spec;
+    }
+
+    private Optional<ApiGuard> guardFor(ApiConfig apiConfig) {
+        return guards.computeIfAbsent(apiConfig.getName(), name -> ApiGuard.isConfigured(apiConfig)
+                ? Optional.of(new ApiGuard(apiConfig))
+                : Optional.empty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V getOrCreate(String cacheName, String factoryName, ApiConfig apiConfig) {
+        Cache<V, ApiConfig> cache = (Cache<V, ApiConfig>) caches.get(cacheName);
+        Factory<V, ApiConfig> factory = (Factory<V, ApiConfig>) factories.get(factoryName);
+        if (cache == null || factory == null) {
+            throw new IllegalStateException("Missing cache '" + cacheName + "' or factory '" + factoryName + "'");
+        }
+        return cache.getOrCreate(apiConfig, factory);
+    }
+}
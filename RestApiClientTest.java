@@ -3,18 +3,29 @@ package com.example.client;
 import com.example.cache.Cache;
 import com.example.factory.Factory;
 import com.example.model.ApiConfig;
+import com.example.executor.JsonRecordStreamDecoder;
 import com.example.executor.RestApiClient;
+import com.example.executor.SoapRecordStreamDecoder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.*;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.reactive.function.client.*;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -40,8 +51,13 @@ class RestApiClientTest {
 
     private ApiConfig apiConfig;
 
+    @Captor
+    private ArgumentCaptor<Consumer<HttpHeaders>> headersCaptor;
+
     @BeforeEach
     void setUp() {
+        MockitoAnnotations.openMocks(this);
+
         // Mocks
         mockClient = mock(WebClient.class);
         methodSpec = mock(WebClient.RequestBodyUriSpec.class);
@@ -57,15 +73,18 @@ class RestApiClientTest {
 
         // Prepare ApiConfig
         apiConfig = new ApiConfig();
-        apiConfig.setApiName("testApi");
+        apiConfig.setName("testApi");
         apiConfig.setBaseUrl("http://example.com");
 
         // Initialize RestApiClient
-        Map<String, Cache<?, ApiConfig>> cachesMap = List.of(webClientCache, authHeaderCache).stream()
-                .collect(Collectors.toMap(c -> c.getClass().getSimpleName(), Function.identity()));
+        // Registered under the names the client looks them up by
+        Map<String, Cache<?, ApiConfig>> cachesMap = Map.of(
+                RestApiClient.WEB_CLIENT_CACHE, webClientCache,
+                RestApiClient.AUTH_HEADER_CACHE, authHeaderCache);
 
-        Map<String, Factory<?, ApiConfig>> factoriesMap = List.of(webClientFactory, authHeaderFactory).stream()
-                .collect(Collectors.toMap(f -> f.getClass().getSimpleName(), Function.identity()));
+        Map<String, Factory<?, ApiConfig>> factoriesMap = Map.of(
+                RestApiClient.WEB_CLIENT_FACTORY, webClientFactory,
+                RestApiClient.AUTH_HEADER_FACTORY, authHeaderFactory);
 
         restApiClient = new RestApiClient(cachesMap, factoriesMap);
     }
@@ -89,6 +108,7 @@ class RestApiClientTest {
         when(methodSpec.uri(any(Function.class))).thenReturn(uriSpec);
         when(uriSpec.headers(any())).thenReturn(uriSpec);
         when(uriSpec.bodyValue(any())).thenReturn(headersSpec);
+        when(uriSpec.retrieve()).thenReturn(responseSpec); // no body: bodyValue is skipped
         when(headersSpec.retrieve()).thenReturn(responseSpec);
         when(responseSpec.toEntity(eq(String.class))).thenReturn(Mono.just(ResponseEntity.ok("OK")));
 
@@ -110,4 +130,93 @@ class RestApiClientTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("OK", response.getBody());
     }
+
+    @Test
+    void testExecuteStream_jsonSplitAcrossChunks_emitsRecordsInOrder() {
+        when(webClientCache.getOrCreate(eq(apiConfig), eq(webClientFactory))).thenReturn(mockClient);
+        when(authHeaderCache.getOrCreate(eq(apiConfig), eq(authHeaderFactory))).thenReturn(Map.of());
+
+        when(mockClient.method(any())).thenReturn(methodSpec);
+        when(methodSpec.uri(any(Function.class))).thenReturn(uriSpec);
+        when(uriSpec.headers(any())).thenReturn(uriSpec);
+        when(uriSpec.retrieve()).thenReturn(responseSpec);
+
+        // Chunk boundaries fall inside a field name, a number and between records
+        String json = "{\"meta\": {\"rows\": 2}, \"dataframe\": [{\"id\": 1, \"price\": 101.5}, {\"id\": 2, \"tags\": [\"a\"]}]}";
+        Flux<DataBuffer> chunks = Flux.just(json.substring(0, 40), json.substring(40, 58), json.substring(58))
+                .map(part -> DefaultDataBufferFactory.sharedInstance.wrap(part.getBytes(StandardCharsets.UTF_8)));
+        when(responseSpec.bodyToFlux(eq(DataBuffer.class))).thenReturn(chunks);
+
+        Flux<Map<String, Object>> records = restApiClient.executeStream(
+                apiConfig,
+                HttpMethod.GET,
+                "/test-endpoint",
+                null,
+                null,
+                new LinkedMultiValueMap<>(),
+                new JsonRecordStreamDecoder("dataframe")
+        );
+
+        StepVerifier.create(records)
+                .expectNext(Map.of("id", 1, "price", 101.5))
+                .expectNext(Map.of("id", 2, "tags", List.of("a")))
+                .verifyComplete();
+    }
+
+    @Test
+    void testJsonRecordStreamDecoder_nestedArrayWithRecordsFieldName_notEmitted() {
+        String json = "{\"meta\": {\"dataframe\": [{\"id\": 0}]}, \"dataframe\": [{\"id\": 1, \"legs\": {\"dataframe\": [{\"id\": 9}]}}]}";
+        Flux<DataBuffer> body = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes(StandardCharsets.UTF_8)));
+
+        StepVerifier.create(new JsonRecordStreamDecoder("dataframe").decode(body))
+                .expectNext(Map.of("id", 1, "legs", Map.of("dataframe", List.of(Map.of("id", 9)))))
+                .verifyComplete();
+    }
+
+    @Test
+    void testExecuteSoap_escapedReturnSplitAcrossChunks_emitsRecords() {
+        when(webClientCache.getOrCreate(eq(apiConfig), eq(webClientFactory))).thenReturn(mockClient);
+        when(authHeaderCache.getOrCreate(eq(apiConfig), eq(authHeaderFactory))).thenReturn(Map.of());
+
+        when(mockClient.method(any())).thenReturn(methodSpec);
+        when(methodSpec.uri(any(Function.class))).thenReturn(uriSpec);
+        when(uriSpec.headers(any())).thenReturn(uriSpec);
+        when(uriSpec.bodyValue(any())).thenReturn(headersSpec);
+        when(headersSpec.retrieve()).thenReturn(responseSpec);
+
+        // Chunk boundaries fall inside an entity and inside the embedded markup
+        String soap = "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>"
+                + "<ns2:getProductsResponse xmlns:ns2=\"http://example.com/\"><return>"
+                + "&lt;ProductList&gt;&lt;PBOBJECT&gt;&lt;COLUMN NAME=\"id\"&gt;1&lt;/COLUMN&gt;"
+                + "&lt;COLUMN NAME=\"name\"&gt;A &amp;amp; B&lt;/COLUMN&gt;&lt;/PBOBJECT&gt;"
+                + "&lt;PBOBJECT&gt;&lt;COLUMN NAME=\"id\"&gt;2&lt;/COLUMN&gt;&lt;/PBOBJECT&gt;&lt;/ProductList&gt;"
+                + "</return></ns2:getProductsResponse></soap:Body></soap:Envelope>";
+        int entity = soap.indexOf("&lt;PBOBJECT") + 2;
+        int markup = soap.indexOf("NAME=\"name\"") + 3;
+        Flux<DataBuffer> chunks = Flux.just(soap.substring(0, entity), soap.substring(entity, markup), soap.substring(markup))
+                .map(part -> DefaultDataBufferFactory.sharedInstance.wrap(part.getBytes(StandardCharsets.UTF_8)));
+        when(responseSpec.bodyToFlux(eq(DataBuffer.class))).thenReturn(chunks);
+
+        Flux<Map<String, Object>> records = restApiClient.executeSoap(
+                apiConfig,
+                "/ProductService",
+                "getProducts",
+                "<soap:Envelope/>",
+                new SoapRecordStreamDecoder("PBOBJECT")
+        );
+
+        StepVerifier.create(records)
+                .expectNext(Map.of("id", "1", "name", "A & B"))
+                .expectNext(Map.of("id", "2"))
+                .verifyComplete();
+
+        // SOAP 1.1 request: POSTed envelope, text/xml and a quoted SOAPAction
+        verify(mockClient).method(HttpMethod.POST);
+        verify(uriSpec).bodyValue("<soap:Envelope/>");
+        verify(uriSpec).headers(headersCaptor.capture());
+        HttpHeaders sent = new HttpHeaders();
+        headersCaptor.getValue().accept(sent);
+        assertEquals("\"getProducts\"", sent.getFirst(RestApiClient.SOAP_ACTION_HEADER));
+        assertTrue(MediaType.TEXT_XML.isCompatibleWith(sent.getContentType()));
+    }
 }
@@ -0,0 +1,187 @@
+import com.example.cache.BoundedCache;
+import com.example.executor.RestApiClient;
+import com.example.security.CredentialStore;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline load test of the HTTP layer: drives {@link RestApiClient} (built on {@link WebClientFactory})
+ * against a {@link StubServer} at a fixed request rate, then reports throughput, latency percentiles,
+ * connection pool pressure and allocation rate.
+ * <p>
+ * The load is open-loop: requests are started on schedule whatever the response times, so a pool or
+ * timeout setting that cannot keep up shows as growing latency and pending acquires, not as a lower rate.
+ * <pre>
+ * java RestApiLoadTest rps=2000 durationSec=30 latency=lognormal:20:0.6 payloadBytes=4096 errorRate=0.01 \
+ *                      maxConnections=200 pendingAcquireTimeoutSec=10 readTimeoutSec=30 protocol=HTTP11
+ * </pre>
+ */
+public class RestApiLoadTest {
+
+    private static final Duration TICK = Duration.ofMillis(1);
+    private static final Duration POOL_SAMPLE_PERIOD = Duration.ofMillis(100);
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseArgs(args);
+        int rps = Integer.parseInt(options.getOrDefault("rps", "1000"));
+        int durationSec = Integer.parseInt(options.getOrDefault("durationSec", "30"));
+        int warmupSec = Integer.parseInt(options.getOrDefault("warmupSec", "5"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("maxInFlight", "10000"));
+
+        try (StubServer stub = new StubServer(
+                StubServer.LatencyDistribution.parse(options.getOrDefault("latency", "lognormal:20:0.5")),
+                Integer.parseInt(options.getOrDefault("payloadBytes", "4096")),
+                Double.parseDouble(options.getOrDefault("errorRate", "0.0")));
+             CredentialStore credentialStore = new CredentialStore(0)) {
+
+            ApiConfig apiConfig = new ApiConfig();
+            apiConfig.setName("load-test");
+            apiConfig.setBaseUrl(stub.baseUrl());
+            apiConfig.setType("REST");
+            apiConfig.setProtocol(options.getOrDefault("protocol", "HTTP11"));
+            apiConfig.setMaxConnections(Integer.parseInt(options.getOrDefault("maxConnections", "200")));
+            apiConfig.setPendingAcquireTimeoutSec(Integer.parseInt(options.getOrDefault("pendingAcquireTimeoutSec", "30")));
+            apiConfig.setReadTimeoutSec(Integer.parseInt(options.getOrDefault("readTimeoutSec", "120")));
+
+            WebClientFactory webClientFactory = new WebClientFactory(credentialStore);
+            RestApiClient client = new RestApiClient(
+                    Map.of(RestApiClient.WEB_CLIENT_CACHE, new BoundedCache<>(RestApiClient.WEB_CLIENT_CACHE, 16, null),
+                            RestApiClient.AUTH_HEADER_CACHE, new BoundedCache<>(RestApiClient.AUTH_HEADER_CACHE, 16, null)),
+                    Map.of(RestApiClient.WEB_CLIENT_FACTORY, webClientFactory,
+                            RestApiClient.AUTH_HEADER_FACTORY, new AuthHeaderFactory(credentialStore)));
+
+            System.out.printf("Stub %s | %s%n", stub.baseUrl(), options);
+            if (warmupSec > 0) {
+                run(client, webClientFactory, apiConfig, rps, warmupSec, maxInFlight);
+            }
+            Report report = run(client, webClientFactory, apiConfig, rps, durationSec, maxInFlight);
+            report.print();
+        }
+    }
+
+    private static Report run(RestApiClient client, WebClientFactory webClientFactory, ApiConfig apiConfig,
+                              int rps, int durationSec, int maxInFlight) {
+        int expected = rps * durationSec;
+        long[] latencies = new long[expected];
+        AtomicInteger completed = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        AtomicInteger inFlight = new AtomicInteger();
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("biz_date", "20250722");
+
+        // Pool pressure sampled in the background
+        LongAdder pendingSum = new LongAdder();
+        LongAdder pendingSamples = new LongAdder();
+        AtomicInteger maxPending = new AtomicInteger();
+        Disposable poolSampler = Flux.interval(POOL_SAMPLE_PERIOD).subscribe(tick -> {
+            int pending = webClientFactory.getPoolStats(apiConfig.getName()).pendingAcquire();
+            pendingSum.add(pending);
+            pendingSamples.increment();
+            maxPending.accumulateAndGet(pending, Math::max);
+        });
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        double perTick = rps * (TICK.toNanos() / 1e9);
+        double[] credit = {0.0};
+
+        Flux.interval(TICK)
+                .take(Duration.ofSeconds(durationSec))
+                .concatMapIterable(tick -> {
+                    credit[0] += perTick;
+                    int n = (int) credit[0];
+                    credit[0] -= n;
+                    return Collections.nCopies(n, tick);
+                })
+                .take(expected)
+                .flatMap(tick -> {
+                    if (inFlight.incrementAndGet() > maxInFlight) {
+                        inFlight.decrementAndGet();
+                        dropped.increment();
+                        return Mono.empty();
+                    }
+                    long requestStart = System.nanoTime();
+                    return client.execute(apiConfig, HttpMethod.GET, "/price", null, String.class, null, params)
+                            .doOnSuccess(response -> latencies[Math.min(completed.getAndIncrement(), expected - 1)]
+                                    = System.nanoTime() - requestStart)
+                            .onErrorResume(e -> {
+                                errors.increment();
+                                return Mono.empty();
+                            })
+                            .doFinally(signal -> inFlight.decrementAndGet());
+                }, Integer.MAX_VALUE)
+                .blockLast();
+
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        poolSampler.dispose();
+
+        int ok = Math.min(completed.get(), expected);
+        long[] sorted = Arrays.copyOf(latencies, ok);
+        Arrays.sort(sorted);
+        double avgPending = pendingSamples.sum() == 0 ? 0.0 : (double) pendingSum.sum() / pendingSamples.sum();
+
+        return new Report(rps, ok, errors.sum(), dropped.sum(), elapsedNanos, sorted,
+                avgPending, maxPending.get(), allocated, webClientFactory.getPoolStats(apiConfig.getName()));
+    }
+
+    /** Bytes allocated so far by all live threads (HotSpot only, -1 if unsupported). */
+    private static long allocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            return -1L;
+        }
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private record Report(int targetRps, int ok, long errors, long dropped, long elapsedNanos, long[] sortedLatencies,
+                          double avgPending, int maxPending, long allocatedBytes, WebClientFactory.PoolStats pool) {
+
+        void print() {
+            double seconds = elapsedNanos / 1e9;
+            double throughput = ok / seconds;
+            // Little's law: mean time waiting for a connection = mean queue length / arrival rate
+            double acquireWaitMs = throughput > 0 ? 1000.0 * avgPending / throughput : 0.0;
+
+            System.out.printf("Target %d req/s over %.1f s%n", targetRps, seconds);
+            System.out.printf("  throughput      %.0f req/s ok, %d errors, %d dropped (maxInFlight)%n", throughput, errors, dropped);
+            System.out.printf("  latency ms      p50 %.2f | p99 %.2f | p999 %.2f | max %.2f%n",
+                    percentileMs(0.50), percentileMs(0.99), percentileMs(0.999), percentileMs(1.0));
+            System.out.printf("  pool            %d connections, pending acquire avg %.1f max %d, est. acquire wait %.2f ms%n",
+                    pool.allocated(), avgPending, maxPending, acquireWaitMs);
+            if (allocatedBytes >= 0) {
+                System.out.printf("  allocation      %.1f MB/s, %.1f KB/request%n",
+                        allocatedBytes / seconds / (1024 * 1024), ok == 0 ? 0.0 : allocatedBytes / 1024.0 / ok);
+            }
+        }
+
+        private double percentileMs(double p) {
+            if (sortedLatencies.length == 0) return 0.0;
+            int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
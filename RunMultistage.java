@@ -25,24 +25,31 @@ public void run(String... args) {
     });
 
     // ---------- Stage 2 ----------
+    // One PRICE call per batch of ids (up to 100 ids, or whatever arrived within 10 ms) instead of one per id
+    BatchingApiClient<Object, ResponseEntity<Object>> priceBatcher = new BatchingApiClient<>(
+        "ProductMasterRest PRICE",
+        params -> apiExecutionService.execute(
+            productMasterRest.apiConfig,
+            productMasterRest.endpoints.get("PRICE"),
+            HttpMethod.GET,
+            null,
+            Object.class,
+            null,
+            params
+        ),
+        "internal_security_id",
+        response -> splitDataframeBy(response, "internal_security_id"),
+        100,
+        Duration.ofMillis(10)
+    );
+
     pipeline.addStage(stage1Results -> {
+        MultiValueMap<String, String> sharedParams = new LinkedMultiValueMap<>();
+        sharedParams.add("biz_date", "20250722");
+        sharedParams.add("region", "Europe");
+
         Mono<List<Mono<ApiResponse>>> stage2RawResponses = Flux.fromIterable(stage1Results)
-            .map(record -> {
-                MultiValueMap<String, String> dynamicParams = new LinkedMultiValueMap<>();
-                dynamicParams.add("internal_security_id", record.get("id").toString());
-                dynamicParams.add("biz_date", "20250722");
-                dynamicParams.add("region", "Europe");
-
-                return apiExecutionService.execute(
-                    productMasterRest.apiConfig,
-                    productMasterRest.endpoints.get("PRICE"),
-                    HttpMethod.GET,
-                    null,
-                    Object.class,
-                    null,
-                    dynamicParams
-                );
-            })
+            .map(record -> priceBatcher.execute(record.get("id").toString(), sharedParams))
             .map(ApiResponseWrap::wrap)
             .collectList();
 
@@ -58,3 +65,31 @@ public void run(String... args) {
             finalResult.forEach(System.out::println);
         });
 }
+
+/**
+ * Splits a bulk {"dataframe": [...]} response into one single-row response per key value,
+ * so that each caller of the batch gets the same shape as a single-id call. The parts keep the
+ * bulk response's status and headers, except those describing its body (length, encoding, ETag...).
+ */
+private static Map<String, ResponseEntity<Object>> splitDataframeBy(ResponseEntity<Object> response, String keyField) {
+    Map<String, ResponseEntity<Object>> byKey = new HashMap<>();
+    if (!(response.getBody() instanceof Map<?, ?> body) || !(body.get("dataframe") instanceof List<?> rows)) {
+        return byKey;
+    }
+    Map<String, List<Object>> rowsByKey = new LinkedHashMap<>();
+    for (Object row : rows) {
+        Object key = row instanceof Map<?, ?> map ? map.get(keyField) : null;
+        if (key != null) {
+            rowsByKey.computeIfAbsent(key.toString(), k -> new ArrayList<>()).add(row);
+        }
+    }
+    // Headers describing the bulk body itself do not apply to a part of it
+    HttpHeaders headers = new HttpHeaders();
+    headers.addAll(response.getHeaders());
+    List.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_RANGE,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.ETAG, "Content-MD5", "Digest")
+        .forEach(headers::remove);
+    rowsByKey.forEach((key, keyRows) -> byKey.put(key,
+        new ResponseEntity<>(Map.of("dataframe", keyRows), headers, response.getStatusCode())));
+    return byKey;
+}
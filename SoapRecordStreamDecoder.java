@@ -0,0 +1,191 @@
+package com.example.executor;
+
+import com.fasterxml.aalto.AsyncByteArrayFeeder;
+import com.fasterxml.aalto.AsyncXMLInputFactory;
+import com.fasterxml.aalto.AsyncXMLStreamReader;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes a SOAP response whose {@code <return>} element carries an escaped XML document
+ * ({@code &lt;ProductList&gt;...}), in a single streaming pass.
+ * <p>
+ * The envelope goes through one async reader, which already turns entities back into markup while
+ * reading the text of {@code <return>}; that text is re-encoded to UTF-8 and fed, chunk by chunk, to an
+ * {@link XmlRecordStreamDecoder} that emits the records. Neither the envelope nor the payload is ever
+ * held as a whole. The payload is always fed as UTF-8, whatever its own XML declaration says.
+ */
+public class SoapRecordStreamDecoder implements RecordStreamDecoder {
+
+    private static final AsyncXMLInputFactory XML_FACTORY = new InputFactoryImpl();
+    private static final int PAYLOAD_BUFFER_SIZE = 8 * 1024;
+
+    private final String returnElement;
+    private final XmlRecordStreamDecoder payloadDecoder;
+
+    /** Records are the {@code recordElement} elements (e.g. {@code PBOBJECT}) of the {@code <return>} payload. */
+    public SoapRecordStreamDecoder(String recordElement) {
+        this("return", new XmlRecordStreamDecoder(recordElement));
+    }
+
+    public SoapRecordStreamDecoder(String returnElement, XmlRecordStreamDecoder payloadDecoder) {
+        this.returnElement = returnElement;
+        this.payloadDecoder = payloadDecoder;
+    }
+
+    @Override
+    public Flux<Map<String, Object>> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            EnvelopeTokenizer tokenizer = new EnvelopeTokenizer(payloadDecoder.newTokenizer());
+            return body
+                    .concatMapIterable(tokenizer::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .doFinally(signal -> tokenizer.close());
+        });
+    }
+
+    /** Outer reader over the envelope; forwards the text of {@code <return>} to the payload tokenizer. */
+    private final class EnvelopeTokenizer {
+
+        private final AsyncXMLStreamReader<AsyncByteArrayFeeder> reader = XML_FACTORY.createAsyncForByteArray();
+        private final XmlRecordStreamDecoder.Tokenizer payload;
+
+        // Text of <return> re-encoded to UTF-8; a high surrogate ending a text event waits for its pair
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer encoded = ByteBuffer.allocate(PAYLOAD_BUFFER_SIZE);
+        private char pendingHighSurrogate;
+
+        private boolean inReturn;
+        private boolean returnSeen;
+        private boolean payloadEnded;
+
+        private EnvelopeTokenizer(XmlRecordStreamDecoder.Tokenizer payload) {
+            this.payload = payload;
+        }
+
+        List<Map<String, Object>> feed(DataBuffer buffer) {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                reader.getInputFeeder().feedInput(bytes, 0, bytes.length);
+            } catch (XMLStreamException e) {
+                throw new DecodingException("Invalid SOAP envelope chunk", e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return drain();
+        }
+
+        List<Map<String, Object>> endOfInput() {
+            reader.getInputFeeder().endOfInput();
+            List<Map<String, Object>> records = drain();
+            if (!returnSeen) {
+                throw new DecodingException("No <" + returnElement + "> element in SOAP response");
+            }
+            if (!payloadEnded) {
+                throw new DecodingException("Truncated SOAP response: <" + returnElement + "> not closed at end of input");
+            }
+            return records;
+        }
+
+        void close() {
+            payload.close();
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // nothing left to release
+            }
+        }
+
+        private List<Map<String, Object>> drain() {
+            List<Map<String, Object>> records = new ArrayList<>();
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == AsyncXMLStreamReader.EVENT_INCOMPLETE) {
+                        break;
+                    }
+                    onEvent(event, records);
+                }
+                if (inReturn) {
+                    flush(records); // emit what this network chunk completed, don't wait for a full buffer
+                }
+            } catch (XMLStreamException e) {
+                throw new DecodingException("Invalid SOAP envelope: " + e.getMessage(), e);
+            }
+            return records;
+        }
+
+        private void onEvent(int event, List<Map<String, Object>> records) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    if (inReturn) {
+                        throw new DecodingException("<" + returnElement + "> holds markup, expected escaped XML or CDATA");
+                    }
+                    if (!returnSeen && returnElement.equalsIgnoreCase(reader.getLocalName())) {
+                        inReturn = returnSeen = true;
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                    if (inReturn) {
+                        encode(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength(), records);
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if (inReturn) {
+                        inReturn = false;
+                        flush(records);
+                        records.addAll(payload.endOfInput());
+                        payloadEnded = true;
+                    }
+                }
+                default -> { /* envelope structure, whitespace */ }
+            }
+        }
+
+        private void encode(char[] chars, int start, int length, List<Map<String, Object>> records) {
+            CharBuffer text;
+            if (pendingHighSurrogate != 0) {
+                text = CharBuffer.allocate(length + 1).put(pendingHighSurrogate).put(chars, start, length).flip();
+                pendingHighSurrogate = 0;
+            } else {
+                text = CharBuffer.wrap(chars, start, length);
+            }
+            while (true) {
+                CoderResult result = encoder.encode(text, encoded, false);
+                if (result.isOverflow()) {
+                    flush(records);
+                } else if (result.isUnderflow()) {
+                    if (text.hasRemaining()) {
+                        pendingHighSurrogate = text.get(); // the rest of the pair comes with the next event
+                    }
+                    return;
+                } else {
+                    throw new DecodingException("Unencodable text in <" + returnElement + ">: " + result);
+                }
+            }
+        }
+
+        private void flush(List<Map<String, Object>> records) {
+            if (encoded.position() > 0) {
+                records.addAll(payload.feed(encoded.array(), 0, encoded.position()));
+                encoded.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example;
+
+public enum Status {
+    CACHE_HIT,
+    CACHE_MISS,
+    API_HIT,
+    API_MISS,
+    UNKNOWN // default
+}
@@ -0,0 +1,103 @@
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process HTTP stub (HTTP/1.1 + H2C on the same port) answering every path with a dataframe-like
+ * JSON payload of a given size, after a latency drawn from a {@link LatencyDistribution},
+ * or with a 503 for a given fraction of requests.
+ */
+public class StubServer implements AutoCloseable {
+
+    private final DisposableServer server;
+    private final LongAdder served = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public StubServer(LatencyDistribution latency, int payloadBytes, double errorRate) {
+        byte[] payload = buildPayload(payloadBytes);
+
+        this.server = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .handle((request, response) -> {
+                    Duration delay = latency.next();
+                    if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                        failed.increment();
+                        return Mono.delay(delay).then(response.status(503).send());
+                    }
+                    served.increment();
+                    return response
+                            .header("Content-Type", "application/json")
+                            .header("Content-Length", String.valueOf(payload.length))
+                            .sendByteArray(Mono.just(payload).delayElement(delay));
+                })
+                .bindNow();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    public long served() {
+        return served.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    /** {"dataframe": [{"internal_security_id": i, "price": ...}, ...]} padded to about {@code size} bytes. */
+    private static byte[] buildPayload(int size) {
+        StringBuilder json = new StringBuilder(size + 64).append("{\"dataframe\": [");
+        int i = 0;
+        do {
+            if (i > 0) json.append(", ");
+            json.append("{\"internal_security_id\": ").append(i)
+                    .append(", \"price\": ").append(100 + i % 50).append(".25}");
+            i++;
+        } while (json.length() < size - 2);
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Latency model of the stub, parsed from {@code fixed:<ms>}, {@code uniform:<minMs>:<maxMs>}
+     * or {@code lognormal:<medianMs>:<sigma>} (long right tail, closest to real upstreams).
+     */
+    public interface LatencyDistribution {
+
+        Duration next();
+
+        static LatencyDistribution parse(String spec) {
+            String[] parts = spec.split(":");
+            return switch (parts[0]) {
+                case "fixed" -> {
+                    Duration d = Duration.ofMillis(Long.parseLong(parts[1]));
+                    yield () -> d;
+                }
+                case "uniform" -> {
+                    long min = Long.parseLong(parts[1]);
+                    long max = Long.parseLong(parts[2]);
+                    yield () -> Duration.ofMillis(ThreadLocalRandom.current().nextLong(min, max + 1));
+                }
+                case "lognormal" -> {
+                    double median = Double.parseDouble(parts[1]);
+                    double sigma = Double.parseDouble(parts[2]);
+                    yield () -> Duration.ofMicros((long) (1000 * median
+                            * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian())));
+                }
+                default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            };
+        }
+    }
+}
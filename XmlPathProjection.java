@@ -0,0 +1,207 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The element paths a caller wants out of a document, compiled once into a state machine that the XML
+ * parsers walk as they read start tags, so that everything else is skipped without building anything.
+ * <p>
+ * A path is a list of steps from the document element, separated by {@code /}. A step is an element name
+ * or {@code *}, optionally followed by one attribute test {@code [@ATTR=value]} (the value may be quoted):
+ * <pre>
+ * ProductList/PBOBJECT/COLUMN[@NAME=price]
+ * PBOBJECT/PBOBJECTLIST[@NAME='Products']/PBOBJECT/COLUMN[@NAME=isin]
+ * </pre>
+ * The element at the end of a path is kept whole, with all its descendants; its ancestors are kept as
+ * containers only. Paths sharing a prefix share states, and when an element matches several steps the
+ * merged state is computed once and reused.
+ * <p>
+ * A compiled projection is immutable apart from that cache of merged states, which is concurrent: one
+ * projection, such as {@link #ALL}, can be shared by parsers running on several threads.
+ */
+public final class XmlPathProjection {
+
+    /** Keeps the whole document. */
+    public static final XmlPathProjection ALL = compile("*");
+
+    private final State root = new State(false);
+
+    private XmlPathProjection() {
+    }
+
+    public static XmlPathProjection compile(String... paths) {
+        return compile(Arrays.asList(paths));
+    }
+
+    public static XmlPathProjection compile(Collection<String> paths) {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("No path to project");
+        }
+        XmlPathProjection projection = new XmlPathProjection();
+        for (String path : paths) {
+            projection.add(path);
+        }
+        return projection;
+    }
+
+    /** State before the document element. */
+    public State root() {
+        return root;
+    }
+
+    private void add(String path) {
+        List<Step> steps = parse(path);
+        State state = root;
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            boolean last = i == steps.size() - 1;
+            if (state.selected) {
+                return; // already kept whole by a shorter path
+            }
+            Step existing = state.find(step);
+            if (existing == null) {
+                existing = new Step(step.name, step.attribute, step.value, last ? State.SELECTED : new State(false));
+                state.add(existing);
+            } else if (last && !existing.target.selected) {
+                state.replace(existing, new Step(step.name, step.attribute, step.value, State.SELECTED));
+                existing = state.find(step);
+            }
+            state = existing.target;
+        }
+    }
+
+    private static List<Step> parse(String path) {
+        List<Step> steps = new ArrayList<>();
+        String trimmed = path.strip();
+        int pos = trimmed.startsWith("/") ? 1 : 0;
+        while (pos < trimmed.length()) {
+            int end = pos;
+            while (end < trimmed.length() && trimmed.charAt(end) != '/' && trimmed.charAt(end) != '[') end++;
+            String name = trimmed.substring(pos, end).strip();
+            String attribute = null;
+            String value = null;
+            if (end < trimmed.length() && trimmed.charAt(end) == '[') {
+                int close = trimmed.indexOf(']', end);
+                int eq = trimmed.indexOf('=', end);
+                if (close < 0 || eq < 0 || eq > close || trimmed.charAt(end + 1) != '@') {
+                    throw new IllegalArgumentException("Expected [@ATTR=value] in path: " + path);
+                }
+                attribute = trimmed.substring(end + 2, eq).strip();
+                value = unquote(trimmed.substring(eq + 1, close).strip());
+                end = close + 1;
+            }
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty step in path: " + path);
+            }
+            steps.add(new Step(name, attribute, value, null));
+            if (end < trimmed.length() && trimmed.charAt(end) != '/') {
+                throw new IllegalArgumentException("Unexpected '" + trimmed.charAt(end) + "' in path: " + path);
+            }
+            pos = end + 1;
+        }
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("Empty path");
+        }
+        return steps;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')
+                && value.charAt(value.length() - 1) == value.charAt(0)) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /** One transition: element name ({@code *} = any) and optional attribute test. */
+    private record Step(String name, String attribute, String value, State target) {
+
+        boolean sameTest(Step other) {
+            return name.equals(other.name) && Objects.equals(attribute, other.attribute) && Objects.equals(value, other.value);
+        }
+
+        boolean matches(Function<String, String> attributes) {
+            return attribute == null || value.equals(attributes.apply(attribute));
+        }
+    }
+
+    /**
+     * Where the parser is in the projection. Parsers keep a stack of states, one per open element,
+     * and skip the subtree of any element for which {@link #child} returns null.
+     */
+    public static final class State {
+
+        /** Inside a kept element: everything below is kept. */
+        static final State SELECTED = new State(true);
+
+        private final boolean selected;
+        private final Map<String, List<Step>> stepsByName = new HashMap<>();
+        private final List<Step> anyNameSteps = new ArrayList<>();
+        private final Map<List<State>, State> merged = new ConcurrentHashMap<>(); // filled lazily by any parser thread
+
+        private State(boolean selected) {
+            this.selected = selected;
+        }
+
+        /** True if this element and everything below it is kept. */
+        public boolean isSelected() {
+            return selected;
+        }
+
+        /**
+         * State of a child element, null if its whole subtree can be skipped.
+         *
+         * @param attributes attribute value by name, only called for steps with an attribute test
+         */
+        public State child(String name, Function<String, String> attributes) {
+            if (selected) {
+                return this;
+            }
+            State match = null;
+            List<State> matches = null;
+            for (List<Step> steps : Arrays.asList(stepsByName.getOrDefault(name, List.of()), anyNameSteps)) {
+                for (Step step : steps) {
+                    if (!step.matches(attributes)) continue;
+                    if (step.target.selected) return SELECTED;
+                    if (match == null) {
+                        match = step.target;
+                    } else {
+                        if (matches == null) matches = new ArrayList<>(List.of(match));
+                        matches.add(step.target);
+                    }
+                }
+            }
+            return matches == null ? match : merged.computeIfAbsent(matches, State::union);
+        }
+
+        private static State union(List<State> states) {
+            State union = new State(false);
+            for (State state : states) {
+                state.stepsByName.values().forEach(steps -> steps.forEach(union::add));
+                state.anyNameSteps.forEach(union::add);
+            }
+            return union;
+        }
+
+        private Step find(Step test) {
+            List<Step> steps = "*".equals(test.name) ? anyNameSteps : stepsByName.getOrDefault(test.name, List.of());
+            for (Step step : steps) {
+                if (step.sameTest(test)) return step;
+            }
+            return null;
+        }
+
+        private void add(Step step) {
+            if ("*".equals(step.name)) {
+                anyNameSteps.add(step);
+            } else {
+                stepsByName.computeIfAbsent(step.name, k -> new ArrayList<>()).add(step);
+            }
+        }
+
+        private void replace(Step old, Step replacement) {
+            List<Step> steps = "*".equals(old.name) ? anyNameSteps : stepsByName.get(old.name);
+            steps.set(steps.indexOf(old), replacement);
+        }
+    }
+}
@@ -2,18 +2,39 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import org.apache.commons.text.StringEscapeUtils;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class XmlProductParserRecursive {
 
+    private static final XMLInputFactory PAYLOAD_FACTORY = newPayloadFactory();
+
     public static void main(String[] args) throws IOException {
         if (args.length == 0) {
-            System.err.println("Usage: java XmlProductParserRecursive <path-to-xml-file>");
+            System.err.println("Usage: java XmlProductParserRecursive [--stream] <path-to-xml-file> [projected-path...]");
             System.exit(1);
         }
 
+        if ("--stream".equals(args[0])) {
+            XmlPathProjection projection = args.length > 2
+                    ? XmlPathProjection.compile(Arrays.asList(args).subList(2, args.length))
+                    : XmlPathProjection.ALL;
+            try (Stream<Map<String, Object>> products = streamFile(args[1], projection)) {
+                products.forEach(System.out::println);
+            }
+            return;
+        }
+
         String xmlFile = args[0];
         List<Map<String, Object>> products = parseFile(xmlFile);
 
@@ -23,6 +44,56 @@ public class XmlProductParserRecursive {
         }
     }
 
+    /**
+     * Streaming counterpart of {@link #parseFile}: products are read one at a time, in constant memory
+     * whatever the file size. The stream holds the file open and must be closed.
+     * <p>
+     * The file is memory-mapped and its bytes fed block by block to an async StAX reader (see
+     * {@link MappedXmlInput}, which also drops characters invalid in XML 1.0), up to the {@code <return>}
+     * element. That reader decodes entities as it goes, and a {@link Reader} over its text events feeds a second StAX
+     * reader, which sees the embedded document as plain XML. Neither document is materialized.
+     */
+    public static Stream<Map<String, Object>> streamFile(String xmlPath) throws IOException {
+        return streamFile(xmlPath, XmlPathProjection.ALL);
+    }
+
+    /**
+     * {@link #streamFile(String)} reading only the elements on the paths of {@code projection}, from the
+     * embedded document's root, e.g. {@code ProductList/PBOBJECT/COLUMN[@NAME=price]}. Other COLUMNs and
+     * subtrees are skipped by the reader without building their text or maps; a product holds only its
+     * selected columns.
+     */
+    public static Stream<Map<String, Object>> streamFile(String xmlPath, XmlPathProjection projection) throws IOException {
+        return streamFile(xmlPath, projection, 0);
+    }
+
+    /**
+     * {@link #streamFile(String, XmlPathProjection)} with typed leaves, when {@code sampleRecords > 0}: a COLUMN
+     * with a {@code TYPE} attribute is converted by it, any other text leaf by the type {@link LeafTypes} infers
+     * for its column over the first {@code sampleRecords} products. Those are held until the types are known,
+     * then every product is emitted converted, so consumers get {@code Integer}/{@code Double}/... values.
+     */
+    public static Stream<Map<String, Object>> streamFile(String xmlPath, XmlPathProjection projection,
+                                                         int sampleRecords) throws IOException {
+        MappedXmlInput input = MappedXmlInput.open(new File(xmlPath));
+        try {
+            ReturnTextReader payload = new ReturnTextReader(input);
+            payload.locateReturn();
+            ProductIterator products = new ProductIterator(PAYLOAD_FACTORY.createXMLStreamReader(payload), projection,
+                    sampleRecords);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(products,
+                            Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(products::close)
+                    .onClose(payload::close);
+        } catch (XMLStreamException e) {
+            input.close();
+            throw new IOException("Invalid XML in " + xmlPath, e);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
     public static List<Map<String, Object>> parseFile(String xmlPath) throws IOException {
         XmlMapper xmlMapper = new XmlMapper();
         JsonNode root = xmlMapper.readTree(new File(xmlPath));
@@ -38,6 +109,18 @@ public class XmlProductParserRecursive {
         return extractProducts(embeddedRoot);
     }
 
+    /**
+     * {@link #parseFile(String)} with leaves typed by the types {@link LeafTypes} infers for each column
+     * over the first {@code sampleRecords} products.
+     */
+    public static List<Map<String, Object>> parseFile(String xmlPath, int sampleRecords) throws IOException {
+        List<Map<String, Object>> products = parseFile(xmlPath);
+        LeafTypes types = new LeafTypes();
+        products.stream().limit(sampleRecords).forEach(types::observeAll);
+        products.forEach(types::convertAll);
+        return products;
+    }
+
     private static Optional<String> findReturnNode(JsonNode node) {
         if (node.isObject()) {
             Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
@@ -117,6 +200,264 @@ public class XmlProductParserRecursive {
         // Otherwise return text content (or null if none)
         return node.textValue();
     }
+
+    private static XMLInputFactory newPayloadFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Text of the {@code <return>} element, entities decoded, as a {@link Reader}.
+     * <p>
+     * The outer document is parsed by Aalto's async reader over the mapped file, so a text event never holds
+     * more than one block: memory stays at one block whatever the size of the embedded document. Chars are
+     * copied straight from the reader's buffer into the caller's.
+     */
+    private static final class ReturnTextReader extends Reader {
+
+        private final MappedXmlInput input;
+        private final XMLStreamReader outer;
+
+        // Current text event, valid until the next call to outer.next()
+        private char[] text;
+        private int textPos;
+        private int textEnd;
+        private boolean done;
+
+        private ReturnTextReader(MappedXmlInput input) {
+            this.input = input;
+            this.outer = input.reader();
+        }
+
+        /** Skips the outer document up to the start of {@code <return>}. */
+        void locateReturn() throws IOException, XMLStreamException {
+            int event;
+            while ((event = outer.next()) != XMLStreamConstants.END_DOCUMENT) {
+                if (event == XMLStreamConstants.START_ELEMENT && "return".equalsIgnoreCase(outer.getLocalName())) {
+                    return;
+                }
+            }
+            throw new RuntimeException("No <return> node with embedded XML found.");
+        }
+
+        @Override
+        public int read(char[] target, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            try {
+                while (textPos == textEnd) {
+                    if (done) {
+                        return -1;
+                    }
+                    switch (outer.next()) {
+                        case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                            text = outer.getTextCharacters();
+                            textPos = outer.getTextStart();
+                            textEnd = textPos + outer.getTextLength();
+                        }
+                        case XMLStreamConstants.END_ELEMENT, XMLStreamConstants.END_DOCUMENT -> done = true;
+                        case XMLStreamConstants.START_ELEMENT ->
+                                throw new IOException("<return> holds markup, expected escaped XML or CDATA");
+                        default -> { /* comments, processing instructions */ }
+                    }
+                }
+            } catch (XMLStreamException e) {
+                throw new IOException("Invalid outer XML: " + e.getMessage(), e);
+            }
+            int n = Math.min(length, textEnd - textPos);
+            System.arraycopy(text, textPos, target, offset, n);
+            textPos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            try {
+                input.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * {@code ProductList/PBOBJECT} elements of the embedded document, read one at a time.
+     * Same mapping as {@link #extractProductRecursive}: {@code COLUMN} elements keyed by {@code NAME}.
+     * Elements outside the projection are skipped; text is only kept inside selected elements.
+     * In typed mode the first products are read ahead to infer the column types.
+     */
+    private static final class ProductIterator implements Iterator<Map<String, Object>> {
+
+        private final XMLStreamReader reader;
+        private final Function<String, String> attributes;
+        private final Deque<XmlPathProjection.State> states = new ArrayDeque<>(); // down to ProductList
+        private Map<String, Object> next;
+
+        // Typed mode: null types = leaves stay text
+        private final LeafTypes types;
+        private final int sampleRecords;
+        private Deque<Map<String, Object>> sampled;
+
+        private ProductIterator(XMLStreamReader reader, XmlPathProjection projection, int sampleRecords) {
+            this.reader = reader;
+            this.attributes = name -> reader.getAttributeValue(null, name);
+            this.types = sampleRecords > 0 ? new LeafTypes() : null;
+            this.sampleRecords = sampleRecords;
+            states.push(projection.root());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = types == null ? advance() : advanceTyped();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, Object> product = next;
+            next = null;
+            return product;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // the underlying Reader is closed separately
+            }
+        }
+
+        private Map<String, Object> advance() {
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        XmlPathProjection.State state = states.peek().child(reader.getLocalName(), attributes);
+                        if (state == null) {
+                            skipElement();
+                        } else if (states.size() == 2 && "PBOBJECT".equals(reader.getLocalName())) {
+                            return readColumns(state); // consumes the end tag
+                        } else {
+                            states.push(state);
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        states.pop();
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new UncheckedIOException(new IOException("Invalid embedded XML: " + e.getMessage(), e));
+            }
+        }
+
+        /** Next product with converted leaves; the first call reads the sample products ahead. */
+        private Map<String, Object> advanceTyped() {
+            if (sampled == null) {
+                sampled = new ArrayDeque<>();
+                Map<String, Object> product;
+                while (sampled.size() < sampleRecords && (product = advance()) != null) {
+                    types.observeAll(product);
+                    sampled.add(product);
+                }
+                sampled.forEach(types::convertAll);
+            }
+            if (!sampled.isEmpty()) {
+                return sampled.poll();
+            }
+            Map<String, Object> product = advance();
+            if (product != null) {
+                types.convertAll(product);
+            }
+            return product;
+        }
+
+        /** Reads the element the reader is on, up to its end tag; only its COLUMN children are kept. */
+        private Map<String, Object> readColumns(XmlPathProjection.State state) throws XMLStreamException {
+            Map<String, Object> product = new LinkedHashMap<>();
+            while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+                if (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                    XmlPathProjection.State column = state.child(reader.getLocalName(), attributes);
+                    if (column != null && "COLUMN".equals(reader.getLocalName())) {
+                        String key = reader.getAttributeValue(null, "NAME");
+                        product.put(key, readColumn(column, key));
+                    } else {
+                        skipElement();
+                    }
+                }
+            }
+            return product;
+        }
+
+        /**
+         * Nested COLUMNs as a map, other child elements as a map by name, otherwise the trimmed text (or null).
+         * {@code key} is the path of the value as {@link LeafTypes} keys it, e.g. {@code price/bid}.
+         */
+        private Object readValue(XmlPathProjection.State state, String key) throws XMLStreamException {
+            Map<String, Object> columns = null;
+            Map<String, Object> children = null;
+            StringBuilder text = null;
+            while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+                switch (reader.getEventType()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        String localName = reader.getLocalName();
+                        XmlPathProjection.State child = state.child(localName, attributes);
+                        if (child == null) {
+                            skipElement();
+                        } else if ("COLUMN".equals(localName)) {
+                            if (columns == null) columns = new LinkedHashMap<>();
+                            String name = reader.getAttributeValue(null, "NAME");
+                            columns.put(name, readColumn(child, key + "/" + name));
+                        } else {
+                            if (children == null) children = new LinkedHashMap<>();
+                            children.put(localName, readValue(child, key + "/" + localName));
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (state.isSelected()) { // otherwise only an ancestor of selected elements
+                            if (text == null) text = new StringBuilder();
+                            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                    default -> { /* whitespace, comments */ }
+                }
+            }
+            if (columns != null) return columns;
+            if (children != null) return children;
+            if (text == null) return null;
+            String trimmed = text.toString().trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+
+        /**
+         * Value of the COLUMN the reader is on. In typed mode a COLUMN with a TYPE attribute is converted by it,
+         * String and Calendar ones included, and its key is kept out of inference so the attribute decides.
+         */
+        private Object readColumn(XmlPathProjection.State state, String key) throws XMLStreamException {
+            String type = types == null ? null : reader.getAttributeValue(null, "TYPE");
+            if (type != null) {
+                types.declare(key);
+            }
+            Object value = readValue(state, key);
+            return type != null && value instanceof String text ? LeafTypes.convertTyped(type, text) : value;
+        }
+
+        private void skipElement() throws XMLStreamException {
+            int level = 1;
+            while (level > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) level++;
+                else if (event == XMLStreamConstants.END_ELEMENT) level--;
+            }
+        }
+    }
 }
 
 
@@ -136,4 +477,9 @@ public class XmlProductParserRecursive {
         <artifactId>commons-text</artifactId>
         <version>1.11.0</version>
     </dependency>
+    <dependency>
+        <groupId>com.fasterxml</groupId>
+        <artifactId>aalto-xml</artifactId>
+        <version>1.3.2</version>
+    </dependency>
 </dependencies>
@@ -0,0 +1,209 @@
+package com.example.executor;
+
+import com.fasterxml.aalto.AsyncByteArrayFeeder;
+import com.fasterxml.aalto.AsyncXMLInputFactory;
+import com.fasterxml.aalto.AsyncXMLStreamReader;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.util.*;
+
+/**
+ * Incremental XML decoder on top of Aalto's async (non-blocking) StAX reader.
+ * <p>
+ * Emits one {@code Map} per {@code recordElement} (e.g. {@code PBOBJECT}) as soon as its end tag is read.
+ * Inside a record, a child element is keyed by its {@code keyAttribute} when present
+ * ({@code <COLUMN NAME="price">} becomes {@code "price"}), by its local name otherwise.
+ * Text-only elements become Strings, elements with children become nested maps,
+ * and repeated keys are collected into lists.
+ */
+public class XmlRecordStreamDecoder implements RecordStreamDecoder {
+
+    private static final AsyncXMLInputFactory XML_FACTORY = new InputFactoryImpl();
+
+    private final String recordElement;
+    private final String keyAttribute;
+
+    public XmlRecordStreamDecoder(String recordElement) {
+        this(recordElement, "NAME");
+    }
+
+    public XmlRecordStreamDecoder(String recordElement, String keyAttribute) {
+        this.recordElement = Objects.requireNonNull(recordElement, "recordElement");
+        this.keyAttribute = keyAttribute;
+    }
+
+    @Override
+    public Flux<Map<String, Object>> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            Tokenizer tokenizer = newTokenizer();
+            return body
+                    .concatMapIterable(tokenizer::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .doFinally(signal -> tokenizer.close());
+        });
+    }
+
+    /** Parse state of one document, for decoders that get their XML bytes from elsewhere (e.g. a SOAP envelope). */
+    Tokenizer newTokenizer() {
+        return new Tokenizer();
+    }
+
+    /** One async reader per subscription: holds the partial parse state between chunks. */
+    final class Tokenizer {
+
+        private final AsyncXMLStreamReader<AsyncByteArrayFeeder> reader = XML_FACTORY.createAsyncForByteArray();
+
+        // Elements of the record being built, innermost on top
+        private final Deque<Element> elements = new ArrayDeque<>();
+
+        List<Map<String, Object>> feed(DataBuffer buffer) {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                return feed(bytes, 0, bytes.length);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        /** The feeder keeps a reference to {@code bytes} until the returned records are drained. */
+        List<Map<String, Object>> feed(byte[] bytes, int offset, int length) {
+            try {
+                reader.getInputFeeder().feedInput(bytes, offset, length);
+            } catch (XMLStreamException e) {
+                throw new DecodingException("Invalid XML chunk", e);
+            }
+            return drain();
+        }
+
+        List<Map<String, Object>> endOfInput() {
+            reader.getInputFeeder().endOfInput();
+            List<Map<String, Object>> records = drain();
+            if (!elements.isEmpty()) {
+                throw new DecodingException("Truncated XML: <" + recordElement + "> not closed at end of input");
+            }
+            return records;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // nothing left to release
+            }
+        }
+
+        private List<Map<String, Object>> drain() {
+            List<Map<String, Object>> records = List.of();
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == AsyncXMLStreamReader.EVENT_INCOMPLETE) {
+                        break;
+                    }
+                    Map<String, Object> record = onEvent(event);
+                    if (record != null) {
+                        if (records.isEmpty()) records = new ArrayList<>();
+                        records.add(record);
+                    }
+                }
+            } catch (XMLStreamException e) {
+                throw new DecodingException("Invalid XML: " + e.getMessage(), e);
+            }
+            return records;
+        }
+
+        /** Returns the completed record, if this event closed one. */
+        private Map<String, Object> onEvent(int event) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    String localName = reader.getLocalName();
+                    if (!elements.isEmpty() || recordElement.equals(localName)) {
+                        String key = keyAttribute != null ? reader.getAttributeValue(null, keyAttribute) : null;
+                        elements.push(new Element(key != null ? key : localName));
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                    if (!elements.isEmpty()) {
+                        elements.peek().appendText(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if (elements.isEmpty()) {
+                        return null;
+                    }
+                    Element done = elements.pop();
+                    if (elements.isEmpty()) {
+                        return done.children != null ? done.children : new LinkedHashMap<>();
+                    }
+                    elements.peek().addChild(done.key, done.value());
+                }
+                default -> { /* comments, PIs, whitespace outside records */ }
+            }
+            return null;
+        }
+    }
+
+    /** Element under construction; children and text buffers are only allocated when used. */
+    private static final class Element {
+
+        private final String key;
+        private Map<String, Object> children;
+        private StringBuilder text;
+
+        private Element(String key) {
+            this.key = key;
+        }
+
+        void appendText(char[] chars, int start, int length) {
+            if (text == null) text = new StringBuilder(length);
+            text.append(chars, start, length);
+        }
+
+        @SuppressWarnings("unchecked")
+        void addChild(String childKey, Object value) {
+            if (children == null) children = new LinkedHashMap<>();
+            if (!children.containsKey(childKey)) {
+                children.put(childKey, value);
+                return;
+            }
+            // Element values are only ever Strings, maps or null, so a List here is always a repetition
+            Object existing = children.get(childKey);
+            if (existing instanceof List<?> list) {
+                ((List<Object>) list).add(value);
+            } else {
+                List<Object> list = new ArrayList<>();
+                list.add(existing);
+                list.add(value);
+                children.put(childKey, list);
+            }
+        }
+
+        Object value() {
+            if (children != null) {
+                return children;
+            }
+            if (text == null) {
+                return null;
+            }
+            String trimmed = text.toString().trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+    }
+}
+
+
+<dependencies>
+    <dependency>
+        <groupId>com.fasterxml</groupId>
+        <artifactId>aalto-xml</artifactId>
+        <version>1.3.2</version>
+    </dependency>
+</dependencies>
@@ -0,0 +1,100 @@
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the regex {@link XmlSanitizer} methods, chained as callers do today (one full pass and one
+ * new String per fix), with the single streaming pass of {@link XmlSanitizer#sanitize(java.io.Reader,
+ * java.io.Writer, Set)} applying the same fixes.
+ * <p>
+ * The document is a PBOBJECT list with a few empty COLUMNs, spaces in tag names and control characters.
+ * {@code attributeLength} pads the start tags: the backreference regex backtracks over each start tag that
+ * is not empty, so its cost grows with the square of the tag length, while the streaming pass stays linear.
+ * <pre>
+ * java XmlSanitizerBenchmark            (or: java -jar benchmarks.jar XmlSanitizerBenchmark)
+ *
+ * &lt;dependency&gt;
+ *     &lt;groupId&gt;org.openjdk.jmh&lt;/groupId&gt;
+ *     &lt;artifactId&gt;jmh-core&lt;/artifactId&gt;
+ *     &lt;version&gt;1.37&lt;/version&gt;
+ * &lt;/dependency&gt;
+ * &lt;dependency&gt;
+ *     &lt;groupId&gt;org.openjdk.jmh&lt;/groupId&gt;
+ *     &lt;artifactId&gt;jmh-generator-annprocess&lt;/artifactId&gt;
+ *     &lt;version&gt;1.37&lt;/version&gt;
+ *     &lt;scope&gt;provided&lt;/scope&gt;
+ * &lt;/dependency&gt;
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlSanitizerBenchmark {
+
+    private static final Set<XmlSanitizer.Fix> ALL_BUT_NORMALIZE = EnumSet.of(
+            XmlSanitizer.Fix.INVALID_CHARS, XmlSanitizer.Fix.TAG_NAME_SPACES, XmlSanitizer.Fix.REMOVE_EMPTY_TAGS);
+
+    @Param({"10000"})
+    public int objects;
+
+    @Param({"0", "200"})
+    public int attributeLength;
+
+    private String xml;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String padding = attributeLength == 0 ? "" : " PAD=\"" + "x".repeat(attributeLength) + "\"";
+        StringBuilder sb = new StringBuilder("<PBOBJECT><PBOBJECTLIST NAME=\"Products\">\n");
+        for (int i = 0; i < objects; i++) {
+            sb.append("  <PBOBJECT").append(padding).append(">\n");
+            sb.append("    <COLUMN NAME=\"isin\" TYPE=\"String\"").append(padding).append(">XS")
+                    .append(100_000_000 + i).append("</COLUMN>\n");
+            sb.append("    <COLUMN NAME=\"price\" TYPE=\"Double\"").append(padding).append(">")
+                    .append(random.nextInt(100_000) / 100.0).append("</COLUMN>\n");
+            sb.append("    <COLUMN NAME=\"comment\" TYPE=\"String\"").append(padding).append(">")
+                    .append(i % 7 == 0 ? "" : "ok\u0001").append("</COLUMN>\n");
+            if (i % 11 == 0) {
+                sb.append("    < COLUMN NAME=\"flag\" TYPE=\"YesNo\">Yes</ COLUMN >\n");
+            }
+            sb.append("  </PBOBJECT>\n");
+        }
+        xml = sb.append("</PBOBJECTLIST></PBOBJECT>\n").toString();
+    }
+
+    @Benchmark
+    public String regexPasses() {
+        String result = XmlSanitizer.sanitize(xml);
+        result = XmlSanitizer.fixTagNameSpaces(result);
+        return XmlSanitizer.removeEmptyTags(result);
+    }
+
+    @Benchmark
+    public String singlePass() throws IOException {
+        StringWriter out = new StringWriter(xml.length());
+        XmlSanitizer.sanitize(new StringReader(xml), out, ALL_BUT_NORMALIZE);
+        return out.toString();
+    }
+
+    @Benchmark
+    public String singlePassOnString() {
+        return XmlSanitizer.sanitize(xml, ALL_BUT_NORMALIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(XmlSanitizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
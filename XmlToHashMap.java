@@ -1,23 +1,34 @@
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Function;
 
 public class XmlToHashMap {
 
+    private static final XmlMapper XML_MAPPER = new XmlMapper();
+    private static final String RECORD_ELEMENT = "PBOBJECT";
+    private static final String COLUMN_ELEMENT = "COLUMN";
+
     public static void main(String[] args) {
         try {
-            // 1. Load and parse XML file to JsonNode
-            XmlMapper xmlMapper = new XmlMapper();
-            JsonNode root = xmlMapper.readTree(new File("path/to/your/file.xml"));
-
-            // 2. Convert JsonNode to Map
-            Map<String, Object> resultMap = jsonNodeToMap(root);
+            File xmlFile = new File(args.length > 0 ? args[0] : "path/to/your/file.xml");
+            Map<String, Object> resultMap;
+            if (args.length > 1) {
+                // Only the given paths, e.g. ProductList/PBOBJECT/COLUMN[@NAME=price]
+                resultMap = parseFile(xmlFile, XmlPathProjection.compile(Arrays.asList(args).subList(1, args.length)));
+            } else {
+                // Whole document, built from the parser tokens
+                resultMap = parseFile(xmlFile);
+            }
 
-            // 3. Output result
+            // Output result
             System.out.println(resultMap);
 
         } catch (IOException e) {
@@ -25,32 +36,236 @@ public class XmlToHashMap {
         }
     }
 
-    // Recursive method to convert JsonNode to HashMap
-    private static Map<String, Object> jsonNodeToMap(JsonNode node) {
-        Map<String, Object> result = new HashMap<>();
-
-        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
-        while (fields.hasNext()) {
-            Map.Entry<String, JsonNode> entry = fields.next();
-            JsonNode value = entry.getValue();
+    /**
+     * Reads only the elements on the paths of {@code projection}, in one StAX pass over the memory-mapped
+     * file (see {@link MappedXmlInput}) with no JsonNode tree.
+     * Paths start at the document element, e.g. {@code ProductList/PBOBJECT/COLUMN[@NAME=price]}; anything
+     * else is skipped without building strings or maps for it.
+     * <p>
+     * Selected elements map as with {@link #parseFile(File)}: attributes and child elements become entries,
+     * repeated children a list, a leaf its text, and text next to child elements goes under {@code ""}.
+     * Their ancestors are maps holding the selected descendants only.
+     */
+    public static Map<String, Object> parseFile(File xmlFile, XmlPathProjection projection) throws IOException {
+        try (MappedXmlInput input = MappedXmlInput.open(xmlFile)) {
+            XMLStreamReader reader = input.reader();
+            Function<String, String> attributes = name -> reader.getAttributeValue(null, name);
+            reader.nextTag();
+            XmlPathProjection.State state = projection.root().child(reader.getLocalName(), attributes);
+            Object root = state == null ? null : readElement(reader, state, attributes);
+            return root instanceof Map<?, ?> ? (Map<String, Object>) root : new HashMap<>();
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML in " + xmlFile + ": " + e.getMessage(), e);
+        }
+    }
 
-            if (value.isObject()) {
-                result.put(entry.getKey(), jsonNodeToMap(value)); // Recursive call
-            } else if (value.isArray()) {
-                List<Object> list = new ArrayList<>();
-                for (JsonNode arrayElement : value) {
-                    if (arrayElement.isObject()) {
-                        list.add(jsonNodeToMap(arrayElement));
+    /** Reads the element the reader is on, up to its end tag. */
+    private static Object readElement(XMLStreamReader reader, XmlPathProjection.State state,
+                                      Function<String, String> attributes) throws XMLStreamException {
+        Map<String, Object> fields = null;
+        StringBuilder text = null;
+        if (state.isSelected()) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (fields == null) fields = new HashMap<>();
+                fields.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+            switch (reader.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    String name = reader.getLocalName();
+                    XmlPathProjection.State child = state.child(name, attributes);
+                    if (child == null) {
+                        skipElement(reader);
                     } else {
-                        list.add(arrayElement.asText());
+                        if (fields == null) fields = new HashMap<>();
+                        addField(fields, name, readElement(reader, child, attributes));
                     }
                 }
-                result.put(entry.getKey(), list);
-            } else {
-                result.put(entry.getKey(), value.asText());
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                    if (state.isSelected()) {
+                        if (text == null) text = new StringBuilder();
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                default -> { /* comments, processing instructions */ }
             }
         }
+        if (!state.isSelected()) {
+            return fields == null ? new HashMap<>() : fields;
+        }
+        if (fields == null) {
+            return text == null ? "" : text.toString();
+        }
+        if (text != null && !text.toString().isBlank()) {
+            fields.put("", text.toString().trim());
+        }
+        return fields;
+    }
+
+    /** Repeated elements collect into a list, detected as they come: values are otherwise only maps and text. */
+    private static void addField(Map<String, Object> fields, String name, Object value) {
+        Object existing = fields.putIfAbsent(name, value);
+        if (existing instanceof List<?> list) {
+            ((List<Object>) list).add(value);
+        } else if (existing != null) {
+            List<Object> list = new ArrayList<>();
+            list.add(existing);
+            list.add(value);
+            fields.put(name, list);
+        }
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int level = 1;
+        while (level > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) level++;
+            else if (event == XMLStreamConstants.END_ELEMENT) level--;
+        }
+    }
+
+    /**
+     * Reads the whole document into nested maps, straight from the {@code FromXmlParser} token stream: no
+     * JsonNode tree is built, so the document is held once, as maps, instead of twice.
+     * <p>
+     * The document element's content is the result. Attributes and child elements become entries, mixed text
+     * goes under {@code ""}, a leaf is its text. A child name seen again in the same element turns its entry
+     * into a list, as {@code readTree} does with repeated elements.
+     */
+    public static Map<String, Object> parseFile(File xmlFile) throws IOException {
+        try (JsonParser parser = XML_MAPPER.getFactory().createParser(xmlFile)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? readObject(parser, null, "") : new HashMap<>();
+        }
+    }
+
+    /**
+     * {@link #parseFile(File)} with typed leaves: numbers and flags are stored as {@code Integer}, {@code Long},
+     * {@code Double} or {@code Boolean} (see {@link LeafTypes}) as they are read. The text of an element with a
+     * {@code TYPE} attribute ({@code Integer}, {@code Double}, {@code YesNo}, ...) follows it; any other leaf
+     * follows the type inferred for its path (element names from the root, e.g. {@code Product/price}) over
+     * the first {@code sampleRecords} {@code PBOBJECT} records of the file. The text of a {@code COLUMN} is keyed
+     * by its {@code NAME} attribute ({@code ProductList/PBOBJECT/COLUMN[price]}), as each column has its own type.
+     */
+    public static Map<String, Object> parseFile(File xmlFile, int sampleRecords) throws IOException {
+        LeafTypes types = sampleTypes(xmlFile, sampleRecords);
+        try (JsonParser parser = XML_MAPPER.getFactory().createParser(xmlFile)) {
+            return parser.nextToken() == JsonToken.START_OBJECT ? readObject(parser, types, "") : new HashMap<>();
+        }
+    }
 
+    /** Reads from just after a START_OBJECT up to its END_OBJECT; {@code path} is only tracked when typing. */
+    private static Map<String, Object> readObject(JsonParser parser, LeafTypes types, String path) throws IOException {
+        Map<String, Object> result = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken token = parser.nextToken();
+            Object value;
+            if (types == null) {
+                value = readValue(parser, token, null, null);
+            } else if (token == JsonToken.VALUE_STRING && name.isEmpty() && result.get("TYPE") instanceof String type) {
+                value = LeafTypes.convertTyped(type, parser.getText()); // attributes come before the text
+            } else {
+                value = readValue(parser, token, types, leafKey(path, name, result.get("NAME")));
+            }
+            addField(result, name, value);
+        }
         return result;
     }
+
+    private static Object readValue(JsonParser parser, JsonToken token, LeafTypes types, String path) throws IOException {
+        return switch (token) {
+            case START_OBJECT -> readObject(parser, types, path);
+            case START_ARRAY -> {
+                List<Object> list = new ArrayList<>();
+                JsonToken element;
+                while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser, element, types, path));
+                }
+                yield list;
+            }
+            case VALUE_NULL -> null; // xsi:nil="true"
+            default -> types == null ? parser.getText() : types.convert(path, parser.getText());
+        };
+    }
+
+    /**
+     * Samples leaf values by key ({@link #leafKey}) from the start of the file, at most {@code sampleRecords}
+     * values per key. The pass ends after {@code sampleRecords} {@code PBOBJECT} records, or, in a document
+     * without them, once every key seen has that many values, or at the end of the file. The text of an
+     * element with a {@code TYPE} attribute is not sampled, the attribute decides its type.
+     */
+    static LeafTypes sampleTypes(File xmlFile, int sampleRecords) throws IOException {
+        LeafTypes types = new LeafTypes();
+        Map<String, Integer> seen = new HashMap<>();
+        int open = 0;    // keys with fewer than sampleRecords values
+        int records = 0; // PBOBJECT elements read
+        try (JsonParser parser = XML_MAPPER.getFactory().createParser(xmlFile)) {
+            Deque<SampleElement> elements = new ArrayDeque<>();
+            String field = null;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case FIELD_NAME -> field = parser.currentName();
+                    case START_OBJECT -> elements.push(new SampleElement(
+                            field == null ? "" : childPath(elements.peek().path, field), field));
+                    case END_OBJECT -> {
+                        SampleElement element = elements.pop();
+                        if (RECORD_ELEMENT.equals(element.name) && !elements.isEmpty() && ++records >= sampleRecords) {
+                            return types;
+                        }
+                        if (records == 0 && open == 0 && !seen.isEmpty()) {
+                            return types; // no records: the element holding the last value needed is complete
+                        }
+                    }
+                    case START_ARRAY -> parser.skipChildren();
+                    case VALUE_STRING -> {
+                        SampleElement element = elements.peek();
+                        if (element == null) continue;
+                        if ("TYPE".equals(field)) element.typed = true;
+                        if ("NAME".equals(field)) element.column = parser.getText();
+                        if (field.isEmpty() && element.typed) continue; // attributes come before the text
+                        String key = leafKey(element.path, field, element.column);
+                        int count = seen.merge(key, 1, Integer::sum);
+                        if (count > sampleRecords) continue;
+                        types.observe(key, parser.getText());
+                        if (count == 1) open++;
+                        if (count == sampleRecords) open--;
+                    }
+                    default -> { /* null */ }
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Type key of the leaf {@code field} of the element at {@code path}: its path, except for the text of a
+     * {@code COLUMN}, keyed by the column's {@code NAME} as every column holds its own kind of value.
+     */
+    private static String leafKey(String path, String field, Object column) {
+        if (field.isEmpty() && column instanceof String name
+                && (path.equals(COLUMN_ELEMENT) || path.endsWith("/" + COLUMN_ELEMENT))) {
+            return path + "[" + name + "]";
+        }
+        return childPath(path, field);
+    }
+
+    private static String childPath(String path, String name) {
+        return path.isEmpty() ? name : path + "/" + name;
+    }
+
+    /** Element open during {@link #sampleTypes}, with the attributes read so far. */
+    private static final class SampleElement {
+
+        private final String path;
+        private final String name;
+        private boolean typed;
+        private String column;
+
+        private SampleElement(String path, String name) {
+            this.path = path;
+            this.name = name;
+        }
+    }
 }
@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlToHashMapTest {
+
+    private static final String PRODUCTS = "<ProductList>"
+            + "<PBOBJECT><COLUMN NAME=\"id\">1</COLUMN><COLUMN NAME=\"isin\">XS0001</COLUMN></PBOBJECT>"
+            + "<PBOBJECT><COLUMN NAME=\"id\">2</COLUMN><COLUMN NAME=\"isin\">XS0002</COLUMN></PBOBJECT>"
+            + "</ProductList>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParseFile_projectionAll_withDeclarationAndComment() throws IOException {
+        File file = write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- export -->\n" + PRODUCTS);
+
+        assertProducts(XmlToHashMap.parseFile(file, XmlPathProjection.ALL));
+    }
+
+    @Test
+    void testParseFile_projectionAll_withoutDeclaration() throws IOException {
+        File file = write(PRODUCTS);
+
+        assertProducts(XmlToHashMap.parseFile(file, XmlPathProjection.ALL));
+    }
+
+    @Test
+    void testParseFile_projectedColumn_keepsOnlyThatColumn() throws IOException {
+        File file = write(PRODUCTS);
+
+        Map<String, Object> result = XmlToHashMap.parseFile(file,
+                XmlPathProjection.compile("ProductList/PBOBJECT/COLUMN[@NAME=isin]"));
+
+        List<?> products = (List<?>) result.get("PBOBJECT");
+        assertEquals(Map.of("COLUMN", Map.of("NAME", "isin", "", "XS0001")), products.get(0));
+        assertEquals(Map.of("COLUMN", Map.of("NAME", "isin", "", "XS0002")), products.get(1));
+    }
+
+    @Test
+    void testParseFileTyped_columnsTypedByName() throws IOException {
+        File file = write("<ProductList>"
+                + "<PBOBJECT><COLUMN NAME=\"id\">001</COLUMN><COLUMN NAME=\"price\">1.5</COLUMN>"
+                + "<COLUMN NAME=\"qty\">10</COLUMN><COLUMN NAME=\"active\" TYPE=\"YesNo\">Yes</COLUMN></PBOBJECT>"
+                + "<PBOBJECT><COLUMN NAME=\"id\">002</COLUMN><COLUMN NAME=\"price\">2</COLUMN>"
+                + "<COLUMN NAME=\"qty\">20</COLUMN><COLUMN NAME=\"active\" TYPE=\"YesNo\">No</COLUMN></PBOBJECT>"
+                + "</ProductList>");
+
+        Map<String, Object> result = XmlToHashMap.parseFile(file, 2);
+
+        List<?> columns = (List<?>) ((Map<?, ?>) ((List<?>) result.get("PBOBJECT")).get(1)).get("COLUMN");
+        assertEquals("002", ((Map<?, ?>) columns.get(0)).get(""));
+        assertEquals(2.0, ((Map<?, ?>) columns.get(1)).get(""));
+        assertEquals(20, ((Map<?, ?>) columns.get(2)).get(""));
+        assertEquals(false, ((Map<?, ?>) columns.get(3)).get(""));
+    }
+
+    @Test
+    void testParseFileTyped_samplingStopsAfterSampleRecords() throws IOException {
+        // Past the first two records the file is malformed: only the sampling pass would get through it
+        File file = write("<ProductList><HEADER>export</HEADER>"
+                + "<PBOBJECT><COLUMN NAME=\"qty\">10</COLUMN></PBOBJECT>"
+                + "<PBOBJECT><COLUMN NAME=\"qty\">20</COLUMN></PBOBJECT>"
+                + "<PBOBJECT><broken></PBOBJECT></ProductList>");
+
+        LeafTypes types = XmlToHashMap.sampleTypes(file, 2);
+
+        assertEquals(30, types.convert("PBOBJECT/COLUMN[qty]", "30"));
+        assertEquals("export", types.convert("HEADER", "export"));
+    }
+
+    private static void assertProducts(Map<String, Object> result) {
+        List<?> products = (List<?>) result.get("PBOBJECT");
+        assertEquals(2, products.size());
+        Map<?, ?> first = (Map<?, ?>) products.get(0);
+        assertEquals(List.of(Map.of("NAME", "id", "", "1"), Map.of("NAME", "isin", "", "XS0001")), first.get("COLUMN"));
+    }
+
+    private File write(String xml) throws IOException {
+        Path file = tempDir.resolve("products.xml");
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+}
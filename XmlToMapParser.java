@@ -2,10 +2,16 @@ import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Self-contained SAX-based parser to convert a structured XML into a nested Map<String, Object>
@@ -29,14 +35,159 @@ public class XmlToMapParser {
     }
 
     public static Map<String, Object> parseXml(File xmlFile) throws Exception {
+        return parseXml(xmlFile, false);
+    }
+
+    /**
+     * @param allocationLight parse COLUMN values from one reused char buffer, without per-element
+     *                        StringBuilders, attribute maps or intermediate Strings (same result)
+     */
+    public static Map<String, Object> parseXml(File xmlFile, boolean allocationLight) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        SAXParser saxParser = factory.newSAXParser();
+
+        PbObjectHandler handler = new PbObjectHandler(allocationLight);
+        saxParser.parse(xmlFile, handler);
+        return handler.getParsedData();
+    }
+
+    /**
+     * Streaming mode: each PBOBJECT directly inside a PBOBJECTLIST whose path has a consumer is handed to it
+     * as soon as its end tag is read, then dropped instead of being added to the list. Memory is bounded by
+     * one object plus whatever is not streamed, which is what the returned root holds.
+     * <p>
+     * A list path is the NAMEs of the enclosing PBOBJECTLISTs joined by {@code /}, outermost first, e.g.
+     * {@code "Products"} or {@code "Products/Prices"} for a list inside the objects of {@code Products}.
+     * Consumers run on the parsing thread; an exception thrown by one aborts the parse.
+     */
+    public static Map<String, Object> parseXml(File xmlFile,
+                                               Map<String, Consumer<Map<String, Object>>> listConsumers) throws Exception {
         SAXParserFactory factory = SAXParserFactory.newInstance();
         SAXParser saxParser = factory.newSAXParser();
 
-        PbObjectHandler handler = new PbObjectHandler();
+        PbObjectHandler handler = new PbObjectHandler(false, listConsumers);
         saxParser.parse(xmlFile, handler);
         return handler.getParsedData();
     }
 
+    /**
+     * Same result as {@link #parseXml(File)}, read through {@link MappedXmlInput}: the file is memory-mapped
+     * and its UTF-8 bytes go straight to the parser, with characters invalid in XML 1.0 dropped on the way
+     * instead of failing the parse. The handler runs in allocation-light mode. UTF-8 files only.
+     */
+    public static Map<String, Object> parseXmlMapped(File xmlFile) throws Exception {
+        PbObjectHandler handler = new PbObjectHandler(true);
+        try (MappedXmlInput input = MappedXmlInput.open(xmlFile)) {
+            input.parse(handler);
+        }
+        return handler.getParsedData();
+    }
+
+    /**
+     * Projected mode: only the elements on the paths of {@code projection} are read, starting from the root
+     * PBOBJECT, e.g. {@code PBOBJECT/PBOBJECTLIST[@NAME=Products]/PBOBJECT/COLUMN[@NAME=price]}. Any other
+     * subtree is skipped as the SAX events go by, with no map, list, attribute copy or text kept for it.
+     * The result has the usual shape, holding only the selected columns and their enclosing objects and lists.
+     */
+    public static Map<String, Object> parseXml(File xmlFile, XmlPathProjection projection) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        SAXParser saxParser = factory.newSAXParser();
+
+        PbObjectHandler handler = new PbObjectHandler(false, null, projection);
+        saxParser.parse(xmlFile, handler);
+        return handler.getParsedData();
+    }
+
+    /**
+     * The objects of one list path (see {@link #parseXml(File, Map)}) as a Flux with backpressure: the parse
+     * runs on a bounded-elastic thread that blocks until the next object is requested, so a slow subscriber
+     * such as {@code ReactiveEngine.processAsStreamReactive} holds at most its prefetch in memory.
+     * Cancelling stops the parse.
+     */
+    public static Flux<Map<String, Object>> streamObjects(File xmlFile, String listPath) {
+        return Flux.push(sink -> {
+            Demand demand = new Demand();
+            sink.onRequest(demand::add);
+            sink.onCancel(demand::cancel);
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    parseXml(xmlFile, Map.of(listPath, object -> {
+                        demand.take();
+                        sink.next(object);
+                    }));
+                    sink.complete();
+                } catch (Exception e) {
+                    if (!demand.isCancelled()) sink.error(e);
+                }
+            });
+        });
+    }
+
+    /** Objects requested by the subscriber and not yet emitted; the parsing thread waits on it. */
+    private static final class Demand {
+        private long requested;
+        private boolean cancelled;
+
+        synchronized void add(long n) {
+            requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+            notifyAll();
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        synchronized void take() {
+            try {
+                while (requested == 0 && !cancelled) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+            if (cancelled) {
+                throw new CancellationException("Subscriber cancelled, parse aborted");
+            }
+            if (requested != Long.MAX_VALUE) requested--;
+        }
+    }
+
+    /**
+     * Same result as {@link #parseXml}, with the items of the top-level {@code PBOBJECTLIST}s parsed in
+     * parallel on {@code pool}; see {@link ParallelPbObjectParser}. Small or unsplittable files are parsed
+     * sequentially.
+     */
+    public static Map<String, Object> parseXmlParallel(File xmlFile, ForkJoinPool pool) throws Exception {
+        return new ParallelPbObjectParser(pool).parse(xmlFile);
+    }
+
+    public static Map<String, Object> parseXmlParallel(File xmlFile) throws Exception {
+        return parseXmlParallel(xmlFile, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Columnar mode: the PBOBJECTs of each PBOBJECTLIST go into a {@link ColumnarTable}, instead of one map per
+     * object. Tables are keyed by list path, the NAMEs of the enclosing lists and the list's own, e.g.
+     * {@code Products} or {@code Products/Legs} for a list inside a product; lists with the same path share a
+     * table. A row holds the COLUMNs of its object, a COLUMN nested in one of them included, as its own cell,
+     * like {@link PbObjectHandler} puts it in the object; the rest of the document (root columns, nested
+     * objects outside a list) is skipped.
+     */
+    public static Map<String, ColumnarTable> parseColumnar(File xmlFile) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        SAXParser saxParser = factory.newSAXParser();
+
+        ColumnarHandler handler = new ColumnarHandler();
+        saxParser.parse(xmlFile, handler);
+        return handler.getTables();
+    }
+
     private static void printMap(Map<String, Object> map, int indent) {
         String prefix = " ".repeat(indent * 2);
         for (Map.Entry<String, Object> entry : map.entrySet()) {
@@ -62,6 +213,14 @@ public class XmlToMapParser {
 
     // Inner class implementing SAX handler logic
     static class PbObjectHandler extends DefaultHandler {
+        private static final double[] POWERS_OF_TEN = new double[23]; // exact as doubles up to 1e22
+        static {
+            double power = 1.0;
+            for (int i = 0; i < POWERS_OF_TEN.length; i++, power *= 10) {
+                POWERS_OF_TEN[i] = power;
+            }
+        }
+
         private final Deque<Map<String, Object>> objectStack = new ArrayDeque<>();
         private final Deque<List<Map<String, Object>>> listStack = new ArrayDeque<>();
         private final Deque<String> elementStack = new ArrayDeque<>();
@@ -69,9 +228,64 @@ public class XmlToMapParser {
         private Map<String, Object> parsedData;
         private Map<String, String> currentAttributes;
 
+        // PBOBJECTLISTs that are direct children of the root PBOBJECT, in document order (used to stitch chunks)
+        final List<List<Map<String, Object>>> topLevelLists = new ArrayList<>();
+
+        // Streaming mode: list path -> consumer of its objects (null = build everything)
+        private final Map<String, Consumer<Map<String, Object>>> listConsumers;
+        private final Deque<String> listPaths = new ArrayDeque<>();
+
+        // Allocation-light mode: text goes to one reused buffer, COLUMN attributes are read without copying
+        // and column names are shared by all the objects of the file
+        private final boolean allocationLight;
+        private char[] textBuffer;
+        private int textLength;
+        private String columnName;
+        private String columnType;
+        private Map<String, String> columnNames;
+
+        // Projection mode: projection state of each open element, and depth inside a skipped subtree
+        private final Deque<XmlPathProjection.State> projectionStates;
+        private int skippedDepth;
+
+        PbObjectHandler() {
+            this(false);
+        }
+
+        PbObjectHandler(boolean allocationLight) {
+            this(allocationLight, null);
+        }
+
+        PbObjectHandler(boolean allocationLight, Map<String, Consumer<Map<String, Object>>> listConsumers) {
+            this(allocationLight, listConsumers, null);
+        }
+
+        PbObjectHandler(boolean allocationLight, Map<String, Consumer<Map<String, Object>>> listConsumers,
+                        XmlPathProjection projection) {
+            this.allocationLight = allocationLight;
+            this.listConsumers = listConsumers;
+            if (projection != null) {
+                projectionStates = new ArrayDeque<>();
+                projectionStates.push(projection.root());
+            } else {
+                projectionStates = null;
+            }
+            if (allocationLight) {
+                textBuffer = new char[256];
+                columnNames = new HashMap<>();
+            }
+        }
+
         @Override
         public void startElement(String uri, String localName, String qName, Attributes attributes) {
-            currentText = new StringBuilder();
+            if (projectionStates != null && !enterProjected(qName, attributes)) {
+                return;
+            }
+            if (allocationLight) {
+                textLength = 0;
+            } else {
+                currentText = new StringBuilder();
+            }
 
             switch (qName) {
                 case "PBOBJECT" -> {
@@ -79,7 +293,7 @@ public class XmlToMapParser {
                     String name = attributes.getValue("NAME");
 
                     if (!objectStack.isEmpty()) {
-                        if (name != null) {
+                        if (name != null && streamConsumer() == null) {
                             objectStack.peek().put(name, newObj);
                         }
                     }
@@ -92,10 +306,23 @@ public class XmlToMapParser {
                     if (!objectStack.isEmpty() && name != null) {
                         objectStack.peek().put(name, newList);
                     }
+                    if (elementStack.size() == 1 && objectStack.size() == 1) {
+                        topLevelLists.add(newList);
+                    }
+                    if (listConsumers != null) {
+                        String segment = name != null ? name : "";
+                        listPaths.push(listPaths.isEmpty() ? segment : listPaths.peek() + "/" + segment);
+                    }
 
                     listStack.push(newList);
                 }
                 case "COLUMN" -> {
+                    if (allocationLight) {
+                        String name = attributes.getValue("NAME");
+                        columnName = name == null ? null : columnNames.computeIfAbsent(name, n -> n);
+                        columnType = attributes.getValue("TYPE");
+                        break;
+                    }
                     currentAttributes = new HashMap<>();
                     for (int i = 0; i < attributes.getLength(); i++) {
                         currentAttributes.put(attributes.getQName(i), attributes.getValue(i));
@@ -108,12 +335,23 @@ public class XmlToMapParser {
 
         @Override
         public void endElement(String uri, String localName, String qName) {
+            if (projectionStates != null) {
+                if (skippedDepth > 0) {
+                    skippedDepth--;
+                    return;
+                }
+                projectionStates.pop();
+            }
             String currentElement = elementStack.pop();
 
             if (qName.equals("COLUMN")) {
                 if (objectStack.isEmpty()) return;
 
                 Map<String, Object> currentObject = objectStack.peek();
+                if (allocationLight) {
+                    currentObject.put(columnName, parseValue(columnType, textBuffer, textLength));
+                    return;
+                }
                 String columnName = currentAttributes.get("NAME");
                 String text = currentText.toString().trim();
                 Object value = parseValue(currentAttributes.get("TYPE"), text);
@@ -126,24 +364,64 @@ public class XmlToMapParser {
                 if (objectStack.isEmpty()) {
                     parsedData = obj;
                 } else if (!listStack.isEmpty()) {
-                    List<Map<String, Object>> list = listStack.peek();
-                    list.add(obj);
+                    Consumer<Map<String, Object>> consumer = streamConsumer();
+                    if (consumer != null) {
+                        consumer.accept(obj); // handed off, not kept
+                    } else {
+                        List<Map<String, Object>> list = listStack.peek();
+                        list.add(obj);
+                    }
                 }
 
             } else if (qName.equals("PBOBJECTLIST")) {
                 listStack.pop();
+                if (listConsumers != null) listPaths.pop();
             }
         }
 
         @Override
         public void characters(char[] ch, int start, int length) {
-            currentText.append(ch, start, length);
+            if (skippedDepth > 0) {
+                return;
+            }
+            if (!allocationLight) {
+                currentText.append(ch, start, length);
+                return;
+            }
+            if (textLength + length > textBuffer.length) {
+                textBuffer = Arrays.copyOf(textBuffer, Math.max(textBuffer.length * 2, textLength + length));
+            }
+            System.arraycopy(ch, start, textBuffer, textLength, length);
+            textLength += length;
         }
 
         public Map<String, Object> getParsedData() {
             return parsedData;
         }
 
+        /** Moves the projection to a new element; false if the element and its subtree are to be skipped. */
+        private boolean enterProjected(String qName, Attributes attributes) {
+            if (skippedDepth > 0) {
+                skippedDepth++;
+                return false;
+            }
+            XmlPathProjection.State state = projectionStates.peek().child(qName, attributes::getValue);
+            if (state == null) {
+                skippedDepth = 1;
+                return false;
+            }
+            projectionStates.push(state);
+            return true;
+        }
+
+        /** Consumer of the PBOBJECT being started or ended, if it sits directly in a streamed list. */
+        private Consumer<Map<String, Object>> streamConsumer() {
+            if (listConsumers == null || listPaths.isEmpty() || !"PBOBJECTLIST".equals(elementStack.peek())) {
+                return null;
+            }
+            return listConsumers.get(listPaths.peek());
+        }
+
         private Object parseValue(String type, String value) {
             if (value == null || value.equalsIgnoreCase("null") || value.isEmpty()) return null;
 
@@ -159,5 +437,193 @@ public class XmlToMapParser {
                 return value; // Fallback to raw string if parsing fails
             }
         }
+
+        /** Same as {@link #parseValue(String, String)}, reading the text in place; a String is only made when returned. */
+        private static Object parseValue(String type, char[] text, int length) {
+            int start = 0;
+            int end = length;
+            while (start < end && text[start] <= ' ') start++;
+            while (end > start && text[end - 1] <= ' ') end--;
+            if (start == end || (end - start == 4 && regionEqualsIgnoreCase(text, start, "null"))) return null;
+
+            if (type != null) {
+                switch (type) {
+                    case "Integer" -> {
+                        Integer value = parseInt(text, start, end);
+                        if (value != null) return value;
+                    }
+                    case "Double" -> {
+                        Double value = parseDouble(text, start, end);
+                        if (value != null) return value;
+                    }
+                    case "YesNo" -> {
+                        return end - start == 3 && regionEqualsIgnoreCase(text, start, "Yes");
+                    }
+                    default -> { /* Calendar and others stay text */ }
+                }
+            }
+            return new String(text, start, end - start);
+        }
+
+        /** Null if not a plain int, like Integer.parseInt failing. */
+        static Integer parseInt(char[] text, int start, int end) {
+            boolean negative = text[start] == '-';
+            int i = negative || text[start] == '+' ? start + 1 : start;
+            if (i == end) return null;
+            long value = 0;
+            for (; i < end; i++) {
+                int digit = text[i] - '0';
+                if (digit < 0 || digit > 9) return null;
+                value = value * 10 + digit;
+                if (value > (long) Integer.MAX_VALUE + 1) return null;
+            }
+            value = negative ? -value : value;
+            return value > Integer.MAX_VALUE ? null : (int) value;
+        }
+
+        /**
+         * Plain decimals ({@code -123.45}) with up to 15 significant digits are computed exactly as
+         * mantissa / 10^fractionDigits, a single correctly rounded division. Anything else (exponent,
+         * NaN, long mantissa) goes through Double.parseDouble; null if that fails too.
+         */
+        static Double parseDouble(char[] text, int start, int end) {
+            boolean negative = text[start] == '-';
+            int i = negative || text[start] == '+' ? start + 1 : start;
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = -1;
+            for (; i < end; i++) {
+                char c = text[i];
+                if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                    continue;
+                }
+                int digit = c - '0';
+                if (digit < 0 || digit > 9 || ++digits > 15) {
+                    return parseDoubleSlow(text, start, end);
+                }
+                mantissa = mantissa * 10 + digit;
+                if (fractionDigits >= 0) fractionDigits++;
+            }
+            if (digits == 0) {
+                return parseDoubleSlow(text, start, end);
+            }
+            double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            return negative ? -value : value;
+        }
+
+        private static Double parseDoubleSlow(char[] text, int start, int end) {
+            try {
+                return Double.parseDouble(new String(text, start, end - start));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        static boolean regionEqualsIgnoreCase(char[] text, int start, String expected) {
+            for (int i = 0; i < expected.length(); i++) {
+                if (Character.toLowerCase(text[start + i]) != Character.toLowerCase(expected.charAt(i))) return false;
+            }
+            return true;
+        }
+    }
+
+    // SAX handler feeding ColumnarTables: COLUMN text in a reused buffer, cells parsed in place
+    static class ColumnarHandler extends DefaultHandler {
+        private final Map<String, ColumnarTable> tables = new LinkedHashMap<>();
+        private final Deque<String> listPaths = new ArrayDeque<>();      // enclosing PBOBJECTLISTs, e.g. "Products/Legs"
+        private final Deque<Integer> listDepths = new ArrayDeque<>();
+        private final Deque<ColumnarTable> rowTables = new ArrayDeque<>(); // open rows, innermost on top
+        private final Deque<Integer> rowDepths = new ArrayDeque<>();
+        private final Deque<Cell> cells = new ArrayDeque<>();              // open COLUMNs, innermost on top
+        private final Map<String, String> columnNames = new HashMap<>();
+        private char[] textBuffer = new char[256];                         // text of the open cells, outermost first
+        private int textLength;
+        private int depth;
+
+        /** An open COLUMN: its row's table, where its text starts in the buffer, and its element depth. */
+        private record Cell(ColumnarTable table, String name, String type, int textStart, int depth) {
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            depth++;
+            switch (qName) {
+                case "PBOBJECTLIST" -> {
+                    String name = attributes.getValue("NAME");
+                    String segment = name != null ? name : "";
+                    listPaths.push(listPaths.isEmpty() ? segment : listPaths.peek() + "/" + segment);
+                    listDepths.push(depth);
+                }
+                case "PBOBJECT" -> {
+                    if (!listDepths.isEmpty() && depth == listDepths.peek() + 1) {
+                        rowTables.push(tables.computeIfAbsent(listPaths.peek(), ColumnarTable::new));
+                        rowDepths.push(depth);
+                    }
+                }
+                case "COLUMN" -> {
+                    // A cell of the innermost row: a child of its PBOBJECT, or of one of its cells
+                    if (!rowDepths.isEmpty() && (depth == rowDepths.peek() + 1
+                            || (!cells.isEmpty() && cells.peek().table() == rowTables.peek() && depth == cells.peek().depth() + 1))) {
+                        String name = attributes.getValue("NAME");
+                        cells.push(new Cell(rowTables.peek(), name == null ? "" : columnNames.computeIfAbsent(name, n -> n),
+                                attributes.getValue("TYPE"), textLength, depth));
+                    }
+                }
+                default -> { }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (qName) {
+                case "COLUMN" -> {
+                    if (!cells.isEmpty() && cells.peek().depth() == depth) {
+                        Cell cell = cells.pop();
+                        setCell(cell);
+                        textLength = cell.textStart(); // the enclosing cell, if any, goes on after it
+                    }
+                }
+                case "PBOBJECT" -> {
+                    if (!rowDepths.isEmpty() && depth == rowDepths.peek()) {
+                        rowDepths.pop();
+                        rowTables.pop().endRow();
+                    }
+                }
+                case "PBOBJECTLIST" -> {
+                    listPaths.pop();
+                    listDepths.pop();
+                }
+                default -> { }
+            }
+            depth--;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (cells.isEmpty() || cells.peek().depth() != depth) return; // only the direct text of a cell
+            if (textLength + length > textBuffer.length) {
+                textBuffer = Arrays.copyOf(textBuffer, Math.max(textBuffer.length * 2, textLength + length));
+            }
+            System.arraycopy(ch, start, textBuffer, textLength, length);
+            textLength += length;
+        }
+
+        public Map<String, ColumnarTable> getTables() {
+            tables.values().forEach(ColumnarTable::finish);
+            return tables;
+        }
+
+        private void setCell(Cell cell) {
+            int start = cell.textStart();
+            int end = textLength;
+            while (start < end && textBuffer[start] <= ' ') start++;
+            while (end > start && textBuffer[end - 1] <= ' ') end--;
+            if (start == end || (end - start == 4 && PbObjectHandler.regionEqualsIgnoreCase(textBuffer, start, "null"))) {
+                cell.table().setNull(cell.name(), cell.type());
+            } else {
+                cell.table().set(cell.name(), cell.type(), textBuffer, start, end);
+            }
+        }
     }
 }
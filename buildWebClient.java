@@ -1,14 +1,28 @@
+import com.example.security.CredentialStore;
 import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 
+import java.net.SocketAddress;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 public class WebClientFactory implements Factory<WebClient, ApiConfig> {
 
     private static final int DEFAULT_MAX_CONNECTIONS = 200;
@@ -17,26 +31,90 @@ public class WebClientFactory implements Factory<WebClient, ApiConfig> {
     private static final int DEFAULT_MAX_IN_MEMORY_SIZE = 50 * 1024 * 1024; // 50MB
     private static final int DEFAULT_READ_TIMEOUT_SEC = 120;
     private static final int DEFAULT_WRITE_TIMEOUT_SEC = 120;
+    private static final int DEFAULT_WARMUP_TIMEOUT_SEC = 30;
+    private static final String DEFAULT_WARMUP_PATH = "/";
+    private static final int DEFAULT_H2_MAX_CONNECTIONS = 4;
+    private static final int DEFAULT_H2_MAX_CONCURRENT_STREAMS = 256;
+    private static final int DEFAULT_ADAPTIVE_TIMEOUT_MIN_MS = 500;
+    private static final int DEFAULT_ADAPTIVE_TIMEOUT_MARGIN_MS = 200;
+    private static final int DEFAULT_DNS_CACHE_TTL_SEC = 60;
+    private static final int DNS_NEGATIVE_CACHE_TTL_SEC = 5;
+    private static final int DEFAULT_ENDPOINT_EJECTION_SEC = 10;
+
+    // One set of event loops for every API: a pool per API is fine, a thread group per API is not
+    private static final int LOOP_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final LoopResources SHARED_LOOP = LoopResources.create("api-client", LOOP_THREADS, true);
+
+    // apiName -> remote address -> live pool gauges (filled by reactor-netty when a pool is created)
+    private final Map<String, Map<SocketAddress, ConnectionProvider.ConnectionPoolMetrics>> poolMetrics =
+            new ConcurrentHashMap<>();
+
+    // apiName -> negotiated compression and its byte counters, for APIs with compression enabled
+    private final Map<String, CompressionSupport> compressions = new ConcurrentHashMap<>();
+
+    // apiName -> load balancer, for APIs with more than one baseUrls entry
+    private final Map<String, LeastOutstandingLoadBalancer> loadBalancers = new ConcurrentHashMap<>();
+
+    // apiName -> adaptive response timeout, for APIs with adaptiveTimeout: true
+    private final Map<String, AdaptiveTimeoutFilter> adaptiveTimeouts = new ConcurrentHashMap<>();
+
+    // Builds SSL contexts from the certificate: block when no prebuilt sslContext is set (null = disabled)
+    private final CredentialStore credentialStore;
+
+    public WebClientFactory() {
+        this(null);
+    }
+
+    public WebClientFactory(CredentialStore credentialStore) {
+        this.credentialStore = credentialStore;
+    }
 
     @Override
     public WebClient create(ApiConfig apiConfig) {
-        return buildWebClient(apiConfig);
+        WebClient webClient = buildWebClient(apiConfig);
+
+        // Fire-and-forget so that cache creation never blocks; call warmUp(...).block() for a blocking startup
+        if (Optional.ofNullable(apiConfig.getWarmupConnections()).orElse(0) > 0) {
+            warmUp(apiConfig, webClient).subscribe();
+        }
+        return webClient;
     }
 
     private WebClient buildWebClient(ApiConfig apiConfig) {
+        String apiName = apiConfig.getName();
+
+        ApiProtocol protocol = ApiProtocol.from(apiConfig.getProtocol());
+
         // Connection pool with keep-alive + idle time
-        ConnectionProvider provider = ConnectionProvider.builder(apiConfig.getName() + "-pool")
-                .maxConnections(Optional.ofNullable(apiConfig.getMaxConnections()).orElse(DEFAULT_MAX_CONNECTIONS))
+        ConnectionProvider.Builder poolBuilder = ConnectionProvider.builder(apiName + "-pool")
                 .pendingAcquireTimeout(Duration.ofSeconds(
                         Optional.ofNullable(apiConfig.getPendingAcquireTimeoutSec()).orElse(DEFAULT_PENDING_ACQUIRE_TIMEOUT_SEC)))
                 .maxIdleTime(Duration.ofSeconds(Optional.ofNullable(apiConfig.getMaxIdleTimeSec()).orElse(60))) // idle timeout
                 .maxLifeTime(Duration.ofMinutes(5)) // optional: total lifetime
-                .build();
+                .metrics(true, () -> new PoolMetricsRegistrar(apiName));
+
+        if (protocol.isMultiplexed()) {
+            // HTTP/2: a handful of connections, each carrying many concurrent streams
+            poolBuilder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(Optional.ofNullable(apiConfig.getMaxConnections()).orElse(DEFAULT_H2_MAX_CONNECTIONS))
+                    .maxConcurrentStreams(Optional.ofNullable(apiConfig.getMaxConcurrentStreams())
+                            .orElse(DEFAULT_H2_MAX_CONCURRENT_STREAMS))
+                    .build());
+        } else {
+            poolBuilder.maxConnections(Optional.ofNullable(apiConfig.getMaxConnections()).orElse(DEFAULT_MAX_CONNECTIONS));
+        }
+        ConnectionProvider provider = poolBuilder.build();
 
         // HttpClient
         HttpClient httpClient = HttpClient.create(provider)
-                .secure(ssl -> ssl.sslContext(apiConfig.getSslContext()))
-                .resolver(DefaultAddressResolverGroup.INSTANCE)
+                .runOn(SHARED_LOOP)
+                .protocol(protocol.getHttpProtocol())
+                // Netty's async DNS resolver on the shared loops; answers cached for at most dnsCacheTtlSec
+                .resolver(spec -> spec
+                        .runOn(SHARED_LOOP)
+                        .cacheMaxTimeToLive(Duration.ofSeconds(
+                                Optional.ofNullable(apiConfig.getDnsCacheTtlSec()).orElse(DEFAULT_DNS_CACHE_TTL_SEC)))
+                        .cacheNegativeTimeToLive(Duration.ofSeconds(DNS_NEGATIVE_CACHE_TTL_SEC)))
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
                         Optional.ofNullable(apiConfig.getConnectTimeoutMillis()).orElse(DEFAULT_CONNECT_TIMEOUT_MS))
                 .keepAlive(true)
@@ -57,6 +135,19 @@ public class WebClientFactory implements Factory<WebClient, ApiConfig> {
                     }
                 });
 
+        // Opt-in response compression, decompressed chunk by chunk in each request's (or H2 stream's) pipeline
+        CompressionSupport compression = CompressionSupport.from(apiName, apiConfig.getCompression());
+        if (compression != null) {
+            compressions.put(apiName, compression);
+            httpClient = compression.apply(httpClient);
+        }
+
+        // TLS (H2 negotiates through ALPN); H2C is cleartext by definition
+        SslContext sslContext = resolveSslContext(apiConfig);
+        if (protocol != ApiProtocol.H2C && sslContext != null) {
+            httpClient = httpClient.secure(ssl -> ssl.sslContext(sslContext));
+        }
+
         // Exchange strategies (memory limits)
         ExchangeStrategies exchangeStrategies = ExchangeStrategies.builder()
                 .codecs(configurer -> configurer.defaultCodecs()
@@ -64,18 +155,211 @@ public class WebClientFactory implements Factory<WebClient, ApiConfig> {
                                 .orElse(DEFAULT_MAX_IN_MEMORY_SIZE)))
                 .build();
 
-        // Build and return WebClient
-        return WebClient.builder()
+        // Build and return WebClient; with several replicas, URIs are built on the first one and rerouted
+        List<String> baseUrls = resolveBaseUrls(apiConfig);
+        WebClient.Builder builder = WebClient.builder()
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .exchangeStrategies(exchangeStrategies)
-                .baseUrl(apiConfig.getBaseUrl())
-                .build();
+                .baseUrl(baseUrls.get(0));
+
+        if (baseUrls.size() > 1) {
+            builder.filter(loadBalancers.computeIfAbsent(apiName, name -> new LeastOutstandingLoadBalancer(
+                    name, baseUrls, Duration.ofSeconds(DEFAULT_ENDPOINT_EJECTION_SEC))));
+        }
+
+        if (Boolean.TRUE.equals(apiConfig.getAdaptiveTimeout())) {
+            builder.filter(adaptiveTimeouts.computeIfAbsent(apiName, name -> newAdaptiveTimeout(apiConfig)));
+        }
+        return builder.build();
+    }
+
+    /** {@code baseUrls} if set, otherwise the single {@code baseUrl}. */
+    private static List<String> resolveBaseUrls(ApiConfig apiConfig) {
+        if (apiConfig.getBaseUrls() != null && !apiConfig.getBaseUrls().isEmpty()) {
+            return apiConfig.getBaseUrls();
+        }
+        if (apiConfig.getBaseUrl() == null) {
+            throw new IllegalArgumentException("No baseUrl or baseUrls for " + apiConfig.getName());
+        }
+        return List.of(apiConfig.getBaseUrl());
+    }
+
+    private AdaptiveTimeoutFilter newAdaptiveTimeout(ApiConfig apiConfig) {
+        // The static read timeout stays the hard ceiling
+        int maxMs = Optional.ofNullable(apiConfig.getAdaptiveTimeoutMaxMs())
+                .orElse(Optional.ofNullable(apiConfig.getReadTimeoutSec()).orElse(DEFAULT_READ_TIMEOUT_SEC) * 1000);
+        int minMs = Math.min(maxMs, Optional.ofNullable(apiConfig.getAdaptiveTimeoutMinMs()).orElse(DEFAULT_ADAPTIVE_TIMEOUT_MIN_MS));
+        int marginMs = Optional.ofNullable(apiConfig.getAdaptiveTimeoutMarginMs()).orElse(DEFAULT_ADAPTIVE_TIMEOUT_MARGIN_MS);
+        return new AdaptiveTimeoutFilter(apiConfig.getName(),
+                Duration.ofMillis(minMs), Duration.ofMillis(maxMs), Duration.ofMillis(marginMs));
+    }
+
+    /**
+     * Response body bytes received by an API, as transferred (compressed) and after decompression.
+     * Empty if the API has no compression configured.
+     */
+    public Optional<CompressionStats> getCompressionStats(String apiName) {
+        return Optional.ofNullable(compressions.get(apiName))
+                .map(c -> new CompressionStats(apiName, c.compressedBytes(), c.uncompressedBytes()));
+    }
+
+    /** Per-replica load of an API, in {@code baseUrls} order; empty if it has a single base URL. */
+    public List<LeastOutstandingLoadBalancer.EndpointStats> getEndpointStats(String apiName) {
+        LeastOutstandingLoadBalancer loadBalancer = loadBalancers.get(apiName);
+        return loadBalancer != null ? loadBalancer.stats() : List.of();
+    }
+
+    /** Response timeout currently applied to the requests of an API, empty if it is not adaptive. */
+    public Optional<Duration> getCurrentTimeout(String apiName) {
+        return Optional.ofNullable(adaptiveTimeouts.get(apiName)).map(AdaptiveTimeoutFilter::currentTimeout);
+    }
+
+    private SslContext resolveSslContext(ApiConfig apiConfig) {
+        if (apiConfig.getSslContext() != null || credentialStore == null) {
+            return apiConfig.getSslContext();
+        }
+        return credentialStore.sslContext(apiConfig);
+    }
+
+    /**
+     * Pre-opens {@code warmupConnections} connections (TCP + TLS handshake) by firing that many
+     * concurrent HEAD requests at {@code warmupPath}. The connections go back to the pool and are
+     * reused by the first real burst, as long as it arrives within {@code maxIdleTimeSec}.
+     * <p>
+     * Any HTTP status counts as success: only the connection matters, not the answer. With several
+     * {@code baseUrls}, the concurrent requests are spread over the replicas by the load balancer, so
+     * each one gets its DNS resolved and part of the connections opened.
+     * <p>
+     * This only applies to HTTP/1.1. With H2/H2C, concurrent requests are multiplexed as streams on the
+     * same connection, so a single request is sent: it opens one connection, handshake and SETTINGS
+     * exchange included, and the pool opens more only as the stream limit is reached.
+     */
+    public Mono<Void> warmUp(ApiConfig apiConfig, WebClient webClient) {
+        int connections = Optional.ofNullable(apiConfig.getWarmupConnections()).orElse(0);
+        if (connections <= 0) {
+            return Mono.empty();
+        }
+        if (ApiProtocol.from(apiConfig.getProtocol()).isMultiplexed()) {
+            connections = 1;
+        }
+        String path = Optional.ofNullable(apiConfig.getWarmupPath()).orElse(DEFAULT_WARMUP_PATH);
+
+        return Flux.range(0, connections)
+                .flatMap(i -> webClient.head()
+                        .uri(path)
+                        .exchangeToMono(response -> response.releaseBody())
+                        .onErrorResume(e -> {
+                            log.warn("[{}] Warm-up connection {} failed: {}", apiConfig.getName(), i, e.getMessage());
+                            return Mono.empty();
+                        }), connections)
+                .then()
+                .timeout(Duration.ofSeconds(DEFAULT_WARMUP_TIMEOUT_SEC), Mono.empty())
+                .doOnSuccess(v -> log.info("[{}] Warm-up done: {}", apiConfig.getName(), getPoolStats(apiConfig.getName())));
+    }
+
+    /**
+     * Snapshot of the pool pressure for one API, summed over all remote addresses of that API.
+     * Returns an all-zero snapshot if no connection has been opened yet.
+     */
+    public PoolStats getPoolStats(String apiName) {
+        int pending = 0, active = 0, idle = 0, allocated = 0, max = 0;
+        for (ConnectionProvider.ConnectionPoolMetrics m : poolMetrics.getOrDefault(apiName, Map.of()).values()) {
+            pending += m.pendingAcquireSize();
+            active += m.acquiredSize();
+            idle += m.idleSize();
+            allocated += m.allocatedSize();
+            max += m.maxAllocatedSize();
+        }
+        return new PoolStats(apiName, pending, active, idle, allocated, max);
+    }
+
+    /** Pool snapshots for every API that has opened at least one connection. */
+    public Map<String, PoolStats> getAllPoolStats() {
+        Map<String, PoolStats> stats = new ConcurrentHashMap<>();
+        poolMetrics.keySet().forEach(apiName -> stats.put(apiName, getPoolStats(apiName)));
+        return stats;
     }
 
     @Override
     public String generateKey(ApiConfig apiConfig) {
         return apiConfig.getName();
     }
+
+    /** Pool pressure snapshot; {@code pendingAcquire > 0} means callers are queuing for a connection. */
+    public record PoolStats(String apiName, int pendingAcquire, int active, int idle, int allocated, int maxConnections) {
+    }
+
+    /** {@code ratio()} is uncompressed / compressed, 1.0 when nothing was compressed. */
+    public record CompressionStats(String apiName, long compressedBytes, long uncompressedBytes) {
+        public double ratio() {
+            return compressedBytes == 0 ? 1.0 : (double) uncompressedBytes / compressedBytes;
+        }
+    }
+
+    /** Keeps reactor-netty's per-pool gauges so that they can be read without a Micrometer registry. */
+    private final class PoolMetricsRegistrar implements ConnectionProvider.MeterRegistrar {
+
+        private final String apiName;
+
+        private PoolMetricsRegistrar(String apiName) {
+            this.apiName = apiName;
+        }
+
+        @Override
+        public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                    ConnectionProvider.ConnectionPoolMetrics metrics) {
+            poolMetrics.computeIfAbsent(apiName, k -> new ConcurrentHashMap<>()).put(remoteAddress, metrics);
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            poolMetrics.computeIfPresent(apiName, (k, byAddress) -> {
+                byAddress.remove(remoteAddress);
+                return byAddress.isEmpty() ? null : byAddress;
+            });
+        }
+    }
+}
+
+
+
+/**
+ * Wire protocol used by the WebClient of one API ({@code protocol:} in the YAML config).
+ */
+public enum ApiProtocol {
+    HTTP11(HttpProtocol.HTTP11, false), // one in-flight request per pooled connection (default)
+    H2(HttpProtocol.H2, true),          // HTTP/2 over TLS, negotiated through ALPN
+    H2C(HttpProtocol.H2C, true);        // HTTP/2 cleartext (prior knowledge), internal networks only
+
+    private final HttpProtocol httpProtocol;
+    private final boolean multiplexed;
+
+    ApiProtocol(HttpProtocol httpProtocol, boolean multiplexed) {
+        this.httpProtocol = httpProtocol;
+        this.multiplexed = multiplexed;
+    }
+
+    public HttpProtocol getHttpProtocol() {
+        return httpProtocol;
+    }
+
+    public boolean isMultiplexed() {
+        return multiplexed;
+    }
+
+    /** Null/blank means HTTP11, case-insensitive otherwise; "HTTP2" is accepted as an alias of H2. */
+    public static ApiProtocol from(String value) {
+        if (value == null || value.isBlank()) {
+            return HTTP11;
+        }
+        String normalized = value.trim().toUpperCase().replace("/", "").replace(".", "");
+        return switch (normalized) {
+            case "HTTP11", "HTTP1" -> HTTP11;
+            case "H2", "HTTP2" -> H2;
+            case "H2C" -> H2C;
+            default -> throw new IllegalArgumentException("Unsupported protocol: " + value);
+        };
+    }
 }
 
 
@@ -83,18 +367,50 @@ public class ApiConfig {
 
     private String name;
     private String baseUrl;
+    private List<String> baseUrls;         // replicas, load balanced (overrides baseUrl)
     private String type; // REST / SOAP
-    private SslContext sslContext;
+    private String protocol; // HTTP11 (default) / H2 / H2C
+    private SslContext sslContext;         // prebuilt; otherwise built from certificate by the CredentialStore
+    private CertificateConfig certificate; // crt / key / pem / keyPassword
+    private String username;               // Basic auth, header encoded once
+    private String password;
 
     // Connection pooling and timeout settings
     private Integer maxConnections;           // e.g., 50 or 200
     private Integer pendingAcquireTimeoutSec; // e.g., 15
     private Integer connectTimeoutMillis;     // e.g., 10000
+    private Integer maxConcurrentStreams;     // H2/H2C only, e.g., 256
+    private String compression;               // e.g., "gzip, deflate, zstd" (null/"none" = disabled)
+    private Integer dnsCacheTtlSec;           // e.g., 60
 
     // Optional per-API read/write timeouts (null = disabled)
     private Integer readTimeoutSec;           // e.g., 15, 120 for long-running APIs
     private Integer writeTimeoutSec;          // e.g., 15
 
+    // Optional adaptive response timeout: p99.9 of observed latency + margin, within [min, max]
+    private Boolean adaptiveTimeout;          // e.g., true
+    private Integer adaptiveTimeoutMinMs;     // e.g., 500
+    private Integer adaptiveTimeoutMaxMs;     // e.g., 120000 (default: readTimeoutSec)
+    private Integer adaptiveTimeoutMarginMs;  // e.g., 200
+
+    // Optional circuit breaker and bulkhead (null = disabled)
+    private Integer circuitBreakerFailureRatePct;  // e.g., 50
+    private Integer circuitBreakerSlowCallRatePct; // e.g., 80
+    private Integer circuitBreakerSlowCallMs;      // e.g., 5000
+    private Integer circuitBreakerWindowSize;      // e.g., 100
+    private Integer circuitBreakerOpenSec;         // e.g., 30
+    private Integer circuitBreakerHalfOpenCalls;   // e.g., 10
+    private Integer bulkheadMaxConcurrentCalls;    // e.g., 100
+
+    // Optional connection warm-up at startup (null/0 = disabled)
+    private Integer warmupConnections;        // e.g., 10
+    private String warmupPath;                // e.g., "/health"
+
+    // Optional response cache for GET endpoints (no TTL = not cached)
+    private Map<String, Integer> responseCacheTtlSec; // endpoint -> TTL, e.g., {"/price": 300}
+    private Integer responseCacheStaleSec;    // e.g., 60
+    private Integer responseCacheMaxEntries;  // e.g., 10000
+
 apis:
   toto:
     name: "ApiToto"
@@ -105,6 +421,8 @@ apis:
     connectTimeoutMillis: 8000
     readTimeoutSec: 30
     writeTimeoutSec: 15
+    warmupConnections: 10
+    warmupPath: "/health"
     certificate:
       crt: "classpath:certs/toto.crt"
       key: "classpath:certs/toto.key"
@@ -117,13 +435,41 @@ apis:
     maxConnections: 50
     pendingAcquireTimeoutSec: 15
     connectTimeoutMillis: 10000
-    readTimeoutSec: 120
+    readTimeoutSec: 120          # hard ceiling
     writeTimeoutSec: 30
+    adaptiveTimeout: true        # per-request timeout follows observed p99.9
+    adaptiveTimeoutMinMs: 1000
+    adaptiveTimeoutMarginMs: 500
+    circuitBreakerFailureRatePct: 50
+    circuitBreakerSlowCallRatePct: 80
+    circuitBreakerSlowCallMs: 20000
+    bulkheadMaxConcurrentCalls: 40   # leaves room in the shared event loop for the other APIs
     certificate:
       crt: "classpath:certs/lala.crt"
       key: "classpath:certs/lala.key"
       pem: "classpath:certs/lala.pem"
 
+  productmaster:
+    name: "ProductMasterRest"
+    baseUrls:                    # replicas, least outstanding requests first
+      - "https://productmaster-1.example.com"
+      - "https://productmaster-2.example.com"
+      - "https://productmaster-3.example.com"
+    dnsCacheTtlSec: 30
+    type: "REST"
+    protocol: "H2"               # one connection, many concurrent streams
+    compression: "gzip, zstd"    # large dataframes over a bandwidth-bound link
+    maxConnections: 2            # HTTP/2 connections, not in-flight requests
+    maxConcurrentStreams: 256
+    pendingAcquireTimeoutSec: 10
+    connectTimeoutMillis: 8000
+    readTimeoutSec: 30
+    writeTimeoutSec: 15
+    responseCacheTtlSec:
+      "/price": 300              # same biz_date query answered from memory for 5 min
+    responseCacheStaleSec: 60
+    responseCacheMaxEntries: 10000
+
 
 
 /**
@@ -167,3 +513,149 @@ apis:
      * to receive outgoing data.
      */
     private Integer writeTimeoutSec;
+
+    /**
+     * Number of connections opened eagerly when the WebClient is created.
+     * <p>
+     * Each one pays its TCP + TLS handshake up front, so the first burst after deployment
+     * finds warm connections in the pool instead of queuing behind handshakes.
+     * Keep it at or below {@code maxConnections}; {@code null} or 0 disables warm-up.
+     * HTTP/1.1 only: with H2/H2C any positive value opens a single connection.
+     */
+    private Integer warmupConnections;
+
+    /**
+     * Path hit with a HEAD request to open each warm-up connection (default {@code "/"}).
+     * <p>
+     * Should be cheap for the server, e.g. a health endpoint. The response status is ignored.
+     */
+    private String warmupPath;
+
+    /**
+     * Wire protocol: {@code HTTP11} (default), {@code H2} (HTTP/2 over TLS through ALPN)
+     * or {@code H2C} (HTTP/2 cleartext).
+     * <p>
+     * With H2/H2C a single connection carries many concurrent requests (streams), so
+     * {@code maxConnections} becomes the number of HTTP/2 connections (default 4) rather
+     * than the number of in-flight requests. A custom {@code sslContext} used with H2
+     * must advertise {@code h2} through ALPN, otherwise leave it null.
+     */
+    private String protocol;
+
+    /**
+     * Maximum number of concurrent streams per HTTP/2 connection (H2/H2C only, default 256).
+     * <p>
+     * The effective value is the lower of this and the server's SETTINGS_MAX_CONCURRENT_STREAMS.
+     */
+    private Integer maxConcurrentStreams;
+
+    /**
+     * Response cache TTL (in seconds) per endpoint path, as passed to {@code RestApiClient.execute}.
+     * <p>
+     * Only GET calls without body or extra headers on a listed endpoint are cached, keyed by
+     * endpoint + query params, and only 2xx responses are stored. Endpoints not listed are never cached.
+     */
+    private Map<String, Integer> responseCacheTtlSec;
+
+    /**
+     * Extra time (in seconds) after the TTL during which a cached response is still served
+     * while a background call refreshes it (stale-while-revalidate, default 0).
+     */
+    private Integer responseCacheStaleSec;
+
+    /**
+     * Maximum number of cached responses for this API (default 10000).
+     * <p>
+     * Beyond that, entries are evicted by frequency and recency (W-TinyLFU).
+     */
+    private Integer responseCacheMaxEntries;
+
+    /**
+     * Client certificate, private key and trusted CAs ({@code crt}, {@code key}, {@code pem}).
+     * <p>
+     * Loaded once by the {@code CredentialStore} into an SSL context (OpenSSL-backed when netty-tcnative
+     * is available, with TLS session resumption). File system paths are watched and the context is
+     * reloaded when they change; {@code classpath:} resources are loaded once.
+     * Ignored when {@code sslContext} is set.
+     */
+    private CertificateConfig certificate;
+
+    /**
+     * Basic authentication credentials. The {@code Authorization} header is encoded once per API
+     * and reused by every request; {@code null} username means no auth header.
+     */
+    private String username;
+    private String password;
+
+    /**
+     * Enables the adaptive response timeout for this API (default false).
+     * <p>
+     * Each request gets a response timeout of the p99.9 latency observed over the last few thousand calls
+     * plus {@code adaptiveTimeoutMarginMs}, kept within {@code [adaptiveTimeoutMinMs, adaptiveTimeoutMaxMs]}.
+     * A slow upstream then releases pooled connections quickly instead of holding them for {@code readTimeoutSec}.
+     */
+    private Boolean adaptiveTimeout;
+
+    /**
+     * Bounds (in milliseconds) of the adaptive response timeout. The min (default 500) protects against
+     * a too-tight timeout after a quiet period; the max defaults to {@code readTimeoutSec}.
+     */
+    private Integer adaptiveTimeoutMinMs;
+    private Integer adaptiveTimeoutMaxMs;
+
+    /**
+     * Added to the observed p99.9 (in milliseconds, default 200) to absorb jitter.
+     */
+    private Integer adaptiveTimeoutMarginMs;
+
+    /**
+     * Circuit breaker thresholds (in percent of the last {@code circuitBreakerWindowSize} calls, default 100).
+     * <p>
+     * The breaker opens when the share of failed calls (5xx, timeouts, connection errors; not 4xx) or of calls
+     * slower than {@code circuitBreakerSlowCallMs} reaches its threshold, once at least 20 calls were seen.
+     * Setting either threshold enables the breaker; {@code null} disables that criterion.
+     */
+    private Integer circuitBreakerFailureRatePct;
+    private Integer circuitBreakerSlowCallRatePct;
+    private Integer circuitBreakerSlowCallMs;
+    private Integer circuitBreakerWindowSize;
+
+    /**
+     * How long (in seconds, default 30) an open breaker fails calls immediately, and how many trial calls
+     * (default 10) it then lets through to decide between closing and opening again.
+     */
+    private Integer circuitBreakerOpenSec;
+    private Integer circuitBreakerHalfOpenCalls;
+
+    /**
+     * Maximum number of calls to this API in flight at once (semaphore bulkhead, {@code null} = unlimited).
+     * <p>
+     * Calls beyond it fail immediately instead of queuing, so one slow API cannot take all the
+     * event loop and pool capacity shared with the others.
+     */
+    private Integer bulkheadMaxConcurrentCalls;
+
+    /**
+     * Response encodings to advertise in {@code Accept-Encoding}: any of {@code gzip}, {@code deflate},
+     * {@code zstd} (comma separated; default {@code none}).
+     * <p>
+     * The body is decompressed chunk by chunk as it arrives, so streaming parsers are fed directly.
+     * zstd is only advertised when zstd-jni is on the classpath. Worth it for large payloads over
+     * bandwidth-bound links; costs CPU for small ones.
+     */
+    private String compression;
+
+    /**
+     * Base URLs of the replicas of this API; takes precedence over {@code baseUrl}.
+     * <p>
+     * With more than one, each request goes to the replica with the fewest requests in flight, and a
+     * replica whose connections fail is skipped for a few seconds. Paths must be the same on all of them.
+     * Pools are per replica: {@code maxConnections} applies to each one.
+     */
+    private List<String> baseUrls;
+
+    /**
+     * Upper bound (in seconds) on how long a DNS answer is cached (default 60); the record TTL applies
+     * when lower. Resolution is asynchronous and never blocks an event loop thread.
+     */
+    private Integer dnsCacheTtlSec;